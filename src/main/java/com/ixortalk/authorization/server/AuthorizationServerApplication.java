@@ -31,6 +31,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.security.oauth2.client.ResourceServerTokenRelayAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 
 @SpringBootApplication(exclude = {ResourceServerTokenRelayAutoConfiguration.class})
@@ -39,6 +40,7 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 @EnableSpringBootMetricsCollector
 @EnableConfigurationProperties(IxorTalkConfigProperties.class)
 @EnableCaching
+@EnableScheduling
 public class AuthorizationServerApplication {
 
     public static void main(String[] args) {
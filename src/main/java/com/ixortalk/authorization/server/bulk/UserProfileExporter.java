@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.bulk;
+
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import com.ixortalk.authorization.server.domain.LoginProvider;
+import io.prometheus.client.Counter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+@Named
+public class UserProfileExporter {
+
+    private static final Counter EXPORTED_ROWS =
+            Counter.build()
+                    .name("user_profile_export_rows_total")
+                    .help("User profiles written by the bulk export.")
+                    .register();
+
+    @Inject
+    private IxorTalkConfigProperties ixorTalkConfigProperties;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void postConstruct() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(ixorTalkConfigProperties.getUserProfileExport().getFetchSize());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportUserProfiles(LoginProvider loginProvider, String authority, Consumer<UserProfileRecord> records) {
+        StringBuilder sql = new StringBuilder(
+                "select p.id, p.email, p.first_name, p.last_name, p.profile_picture_url, p.login_provider, a.authority " +
+                        "from user_profile p left join authorities a on a.user_profile_id = p.id where 1 = 1");
+        List<Object> args = newArrayList();
+        if (loginProvider != null) {
+            sql.append(" and p.login_provider = ?");
+            args.add(loginProvider.name());
+        }
+        if (authority != null) {
+            sql.append(" and p.id in (select user_profile_id from authorities where authority = ?)");
+            args.add(authority);
+        }
+        sql.append(" order by p.id");
+
+        transactionTemplate.execute(status -> {
+            UserProfileRecordAssembler assembler = new UserProfileRecordAssembler(records);
+            jdbcTemplate.query(sql.toString(), args.toArray(), assembler);
+            assembler.flush();
+            return null;
+        });
+    }
+
+    private static class UserProfileRecordAssembler implements RowCallbackHandler {
+
+        private final Consumer<UserProfileRecord> records;
+        private long currentId = -1;
+        private UserProfileRecord current;
+
+        private UserProfileRecordAssembler(Consumer<UserProfileRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            long id = resultSet.getLong("id");
+            if (id != currentId) {
+                flush();
+                currentId = id;
+                current = new UserProfileRecord();
+                current.setEmail(resultSet.getString("email"));
+                current.setFirstName(resultSet.getString("first_name"));
+                current.setLastName(resultSet.getString("last_name"));
+                current.setProfilePictureUrl(resultSet.getString("profile_picture_url"));
+                String loginProvider = resultSet.getString("login_provider");
+                current.setLoginProvider(loginProvider == null ? null : LoginProvider.valueOf(loginProvider));
+            }
+            String authority = resultSet.getString("authority");
+            if (authority != null) {
+                current.getAuthorities().add(authority);
+            }
+        }
+
+        private void flush() {
+            if (current != null) {
+                records.accept(current);
+                EXPORTED_ROWS.inc();
+                current = null;
+            }
+        }
+    }
+}
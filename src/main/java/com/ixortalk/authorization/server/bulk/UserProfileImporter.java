@@ -0,0 +1,223 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.bulk;
+
+import com.ixortalk.authorization.server.bulk.UserProfileRecordReader.Line;
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import com.ixortalk.authorization.server.security.CachingUserDetailsService;
+import io.prometheus.client.Counter;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.ixortalk.authorization.server.bulk.ImportResult.Status.CREATED;
+import static com.ixortalk.authorization.server.bulk.ImportResult.Status.FAILED;
+import static com.ixortalk.authorization.server.bulk.ImportResult.Status.UPDATED;
+import static com.ixortalk.authorization.server.rest.UserInfoService.USER_INFO_CACHE_NAME;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+
+@Named
+public class UserProfileImporter {
+
+    private static final Counter IMPORTED_ROWS =
+            Counter.build()
+                    .name("user_profile_import_rows_total")
+                    .help("Rows processed by the user profile bulk import, by status (created, updated or failed).")
+                    .labelNames("status")
+                    .register();
+
+    private static final String INSERT_USER_PROFILE =
+            "insert into user_profile (id, name, email, first_name, last_name, profile_picture_url, login_provider) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_USER_PROFILE =
+            "update user_profile set name = ?, first_name = ?, last_name = ?, profile_picture_url = ?, login_provider = ? where id = ?";
+    private static final String INSERT_AUTHORITY =
+            "insert into authorities (user_profile_id, authority) values (?, ?)";
+    private static final String AUTHORITIES_ROLE = UserProfile.class.getName() + ".authorities";
+
+    @Inject
+    private IxorTalkConfigProperties ixorTalkConfigProperties;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private PooledSequenceIdAllocator userProfileIdAllocator;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private CachingUserDetailsService userDetailsService;
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private org.hibernate.Cache entityCache;
+
+    @PostConstruct
+    public void postConstruct() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        entityCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public void importUserProfiles(UserProfileRecordReader reader, Consumer<ImportResult> results) throws IOException {
+        int batchSize = ixorTalkConfigProperties.getUserProfileImport().getBatchSize();
+        List<Line> batch = newArrayList();
+        Set<String> batchEmails = newHashSet();
+        Line line;
+        while ((line = reader.next()) != null) {
+            if (line.getRecord() != null && !batchEmails.add(line.getRecord().getEmail())) {
+                flush(batch, results);
+                batchEmails.clear();
+                batchEmails.add(line.getRecord().getEmail());
+            }
+            batch.add(line);
+            if (batch.size() >= batchSize) {
+                flush(batch, results);
+                batchEmails.clear();
+            }
+        }
+        flush(batch, results);
+    }
+
+    private void flush(List<Line> batch, Consumer<ImportResult> results) {
+        List<Line> valid = batch.stream().filter(line -> line.getRecord() != null).collect(toList());
+        Map<Line, ImportResult> imported = newHashMap();
+        List<Long> updatedIds = newArrayList();
+        try {
+            imported.putAll(transactionTemplate.execute(status -> upsert(valid, updatedIds)));
+        } catch (DataAccessException batchFailure) {
+            for (Line line : valid) {
+                try {
+                    imported.putAll(transactionTemplate.execute(status -> upsert(singletonList(line), updatedIds)));
+                } catch (DataAccessException e) {
+                    imported.put(line, new ImportResult(line.getLineNumber(), line.getRecord().getEmail(), FAILED, e.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+
+        updatedIds.forEach(id -> {
+            entityCache.evictEntity(UserProfile.class, id);
+            entityCache.evictCollection(AUTHORITIES_ROLE, id);
+        });
+
+        Cache userInfoCache = cacheManager.getCache(USER_INFO_CACHE_NAME);
+        for (Line line : batch) {
+            ImportResult result = imported.getOrDefault(line, new ImportResult(line.getLineNumber(), null, FAILED, line.getError()));
+            if (result.getStatus() == UPDATED) {
+                userDetailsService.evict(result.getEmail());
+                if (userInfoCache != null) {
+                    userInfoCache.evict(result.getEmail());
+                }
+            }
+            IMPORTED_ROWS.labels(result.getStatus().name().toLowerCase()).inc();
+            results.accept(result);
+        }
+        batch.clear();
+    }
+
+    private Map<Line, ImportResult> upsert(List<Line> lines, List<Long> updatedIds) {
+        Map<Line, ImportResult> results = newHashMap();
+        if (lines.isEmpty()) {
+            return results;
+        }
+
+        Map<String, Long> existingIds = newHashMap();
+        namedParameterJdbcTemplate.query(
+                "select id, email from user_profile where email in (:emails)",
+                singletonMap("emails", lines.stream().map(line -> line.getRecord().getEmail()).collect(toList())),
+                resultSet -> {
+                    existingIds.put(resultSet.getString("email"), resultSet.getLong("id"));
+                });
+
+        List<Object[]> inserts = newArrayList();
+        List<Object[]> updates = newArrayList();
+        List<Long> batchUpdatedIds = newArrayList();
+        List<Object[]> authorities = newArrayList();
+        for (Line line : lines) {
+            UserProfileRecord record = line.getRecord();
+            String loginProvider = record.getLoginProvider() == null ? null : record.getLoginProvider().name();
+            Long id = existingIds.get(record.getEmail());
+            if (id == null) {
+                id = userProfileIdAllocator.nextId();
+                inserts.add(new Object[]{id, record.getEmail(), record.getEmail(), record.getFirstName(), record.getLastName(), record.getProfilePictureUrl(), loginProvider});
+                results.put(line, new ImportResult(line.getLineNumber(), record.getEmail(), CREATED, null));
+            } else {
+                updates.add(new Object[]{record.getEmail(), record.getFirstName(), record.getLastName(), record.getProfilePictureUrl(), loginProvider, id});
+                batchUpdatedIds.add(id);
+                results.put(line, new ImportResult(line.getLineNumber(), record.getEmail(), UPDATED, null));
+            }
+            for (String authority : record.getAuthorities()) {
+                authorities.add(new Object[]{id, authority});
+            }
+        }
+
+        batchUpdate(INSERT_USER_PROFILE, inserts);
+        batchUpdate(UPDATE_USER_PROFILE, updates);
+        if (!batchUpdatedIds.isEmpty()) {
+            namedParameterJdbcTemplate.update("delete from authorities where user_profile_id in (:ids)", singletonMap("ids", batchUpdatedIds));
+        }
+        batchUpdate(INSERT_AUTHORITY, authorities);
+        updatedIds.addAll(batchUpdatedIds);
+        return results;
+    }
+
+    private void batchUpdate(String sql, List<Object[]> batchArgs) {
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batchArgs);
+        }
+    }
+}
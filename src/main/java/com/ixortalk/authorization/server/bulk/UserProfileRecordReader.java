@@ -0,0 +1,175 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ixortalk.authorization.server.domain.LoginProvider;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Strings.emptyToNull;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.stream;
+
+public abstract class UserProfileRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+    private int lineNumber;
+
+    private UserProfileRecordReader(InputStream inputStream) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, UTF_8));
+    }
+
+    public static UserProfileRecordReader ndjson(InputStream inputStream, ObjectMapper objectMapper) {
+        return new UserProfileRecordReader(inputStream) {
+            @Override
+            protected UserProfileRecord parse(String line) throws IOException {
+                return objectMapper.readValue(line, UserProfileRecord.class);
+            }
+        };
+    }
+
+    public static UserProfileRecordReader csv(InputStream inputStream) {
+        return new UserProfileRecordReader(inputStream) {
+
+            private List<String> header;
+
+            @Override
+            protected UserProfileRecord parse(String line) {
+                if (header == null) {
+                    header = csvFields(line);
+                    return null;
+                }
+                List<String> fields = csvFields(line);
+                if (fields.size() != header.size()) {
+                    throw new IllegalArgumentException("Expected " + header.size() + " fields but got " + fields.size());
+                }
+                Map<String, String> values = newHashMap();
+                for (int i = 0; i < header.size(); i++) {
+                    values.put(header.get(i).trim(), emptyToNull(fields.get(i).trim()));
+                }
+                UserProfileRecord record = new UserProfileRecord();
+                record.setEmail(values.get("email"));
+                record.setFirstName(values.get("firstName"));
+                record.setLastName(values.get("lastName"));
+                record.setProfilePictureUrl(values.get("profilePictureUrl"));
+                if (values.get("authorities") != null) {
+                    stream(values.get("authorities").split(";")).map(String::trim).filter(authority -> !authority.isEmpty()).forEach(record.getAuthorities()::add);
+                }
+                if (values.get("loginProvider") != null) {
+                    record.setLoginProvider(LoginProvider.valueOf(values.get("loginProvider").toUpperCase()));
+                }
+                return record;
+            }
+        };
+    }
+
+    public Line next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                UserProfileRecord record = parse(line);
+                if (record == null) {
+                    continue;
+                }
+                if (emptyToNull(record.getEmail()) == null) {
+                    return new Line(lineNumber, null, "Missing email");
+                }
+                return new Line(lineNumber, record, null);
+            } catch (IOException | RuntimeException e) {
+                return new Line(lineNumber, null, "Unparseable record: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    protected abstract UserProfileRecord parse(String line) throws IOException;
+
+    static List<String> csvFields(String line) {
+        List<String> fields = newArrayList();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                field.append(c);
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    public static class Line {
+
+        private final int lineNumber;
+        private final UserProfileRecord record;
+        private final String error;
+
+        private Line(int lineNumber, UserProfileRecord record, String error) {
+            this.lineNumber = lineNumber;
+            this.record = record;
+            this.error = error;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public UserProfileRecord getRecord() {
+            return record;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class InMemorySharedCacheStore implements SharedCacheStore {
+
+    private final Map<String, Map<String, Entry>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] get(String cacheName, String key) {
+        Map<String, Entry> entries = entries(cacheName);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiration < currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public void put(String cacheName, String key, byte[] value, long ttlInSeconds) {
+        entries(cacheName).put(key, new Entry(value, currentTimeMillis() + SECONDS.toMillis(ttlInSeconds)));
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        entries(cacheName).remove(key);
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        entries(cacheName).clear();
+    }
+
+    @Override
+    public List<Eviction> pollEvictions() {
+        caches.values().forEach(entries -> entries.values().removeIf(entry -> entry.expiration < currentTimeMillis()));
+        return emptyList();
+    }
+
+    private Map<String, Entry> entries(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+    }
+
+    private static class Entry {
+
+        private final byte[] value;
+        private final long expiration;
+
+        private Entry(byte[] value, long expiration) {
+            this.value = value;
+            this.expiration = expiration;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Date;
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class JdbcSharedCacheStore implements SharedCacheStore {
+
+    private static final String SELECT_ENTRY_SQL = "select value from shared_cache_entry where cache_name = ? and cache_key = ? and expiration > ?";
+    private static final String UPDATE_ENTRY_SQL = "update shared_cache_entry set value = ?, expiration = ? where cache_name = ? and cache_key = ?";
+    private static final String INSERT_ENTRY_SQL = "insert into shared_cache_entry (cache_name, cache_key, value, expiration) values (?, ?, ?, ?)";
+    private static final String DELETE_ENTRY_SQL = "delete from shared_cache_entry where cache_name = ? and cache_key = ?";
+    private static final String DELETE_ENTRIES_SQL = "delete from shared_cache_entry where cache_name = ?";
+    private static final String DELETE_EXPIRED_ENTRIES_SQL = "delete from shared_cache_entry where expiration < ?";
+    private static final String INSERT_EVICTION_SQL = "insert into shared_cache_eviction (cache_name, cache_key, evicted_at) values (?, ?, ?)";
+    private static final String SELECT_EVICTIONS_SQL = "select id, cache_name, cache_key from shared_cache_eviction where id > ? order by id";
+    private static final String SELECT_LAST_EVICTION_ID_SQL = "select coalesce(max(id), 0) from shared_cache_eviction";
+    private static final String DELETE_OLD_EVICTIONS_SQL = "delete from shared_cache_eviction where evicted_at < ?";
+
+    private static final long EVICTION_RETENTION_IN_MILLIS = HOURS.toMillis(1);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long lastEvictionId;
+
+    public JdbcSharedCacheStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.lastEvictionId = lastEvictionId();
+    }
+
+    @Override
+    public byte[] get(String cacheName, String key) {
+        List<byte[]> values = jdbcTemplate.query(SELECT_ENTRY_SQL, (resultSet, rowNum) -> resultSet.getBytes("value"), cacheName, key, new Date());
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public void put(String cacheName, String key, byte[] value, long ttlInSeconds) {
+        Date expiration = new Date(currentTimeMillis() + SECONDS.toMillis(ttlInSeconds));
+        if (jdbcTemplate.update(UPDATE_ENTRY_SQL, value, expiration, cacheName, key) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_ENTRY_SQL, cacheName, key, value, expiration);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(UPDATE_ENTRY_SQL, value, expiration, cacheName, key);
+        }
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        jdbcTemplate.update(DELETE_ENTRY_SQL, cacheName, key);
+        jdbcTemplate.update(INSERT_EVICTION_SQL, cacheName, key, new Date());
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        jdbcTemplate.update(DELETE_ENTRIES_SQL, cacheName);
+        jdbcTemplate.update(INSERT_EVICTION_SQL, cacheName, null, new Date());
+    }
+
+    /**
+     * Evictions are read by their auto-increment id rather than by timestamp, so clock drift between nodes cannot hide an
+     * eviction and every eviction is applied once.
+     */
+    @Override
+    public synchronized List<Eviction> pollEvictions() {
+        long now = currentTimeMillis();
+        List<Eviction> evictions =
+                jdbcTemplate.query(
+                        SELECT_EVICTIONS_SQL,
+                        (resultSet, rowNum) -> {
+                            lastEvictionId = max(lastEvictionId, resultSet.getLong("id"));
+                            return new Eviction(resultSet.getString("cache_name"), resultSet.getString("cache_key"));
+                        },
+                        lastEvictionId);
+        jdbcTemplate.update(DELETE_OLD_EVICTIONS_SQL, new Date(now - EVICTION_RETENTION_IN_MILLIS));
+        jdbcTemplate.update(DELETE_EXPIRED_ENTRIES_SQL, new Date(now));
+        return evictions;
+    }
+
+    /**
+     * Before the schema is migrated there are no evictions yet, so the feed starts from the beginning.
+     */
+    private long lastEvictionId() {
+        try {
+            return jdbcTemplate.queryForObject(SELECT_LAST_EVICTION_ID_SQL, Long.class);
+        } catch (DataAccessException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+public class SharedCacheSynchronizer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedCacheSynchronizer.class);
+
+    private final SharedCacheStore sharedCacheStore;
+
+    private final Function<String, ? extends LocalCache> caches;
+
+    public SharedCacheSynchronizer(SharedCacheStore sharedCacheStore, List<? extends LocalCache> caches) {
+        this(sharedCacheStore, caches.stream().collect(toMap(LocalCache::getName, identity()))::get);
+    }
+
+    public SharedCacheSynchronizer(SharedCacheStore sharedCacheStore, Function<String, ? extends LocalCache> caches) {
+        this.sharedCacheStore = sharedCacheStore;
+        this.caches = caches;
+    }
+
+    @Scheduled(fixedDelayString = "${ixortalk.security.user-info-cache.eviction-poll-interval-in-millis:1000}")
+    public void synchronize() {
+        try {
+            sharedCacheStore.pollEvictions().forEach(this::apply);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Shared cache synchronization failed: " + e.getMessage());
+        }
+    }
+
+    private void apply(SharedCacheStore.Eviction eviction) {
+        LocalCache cache = caches.apply(eviction.getCacheName());
+        if (cache == null) {
+            return;
+        }
+        if (eviction.isClear()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(eviction.getKey());
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.dao.DataAccessException;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.springframework.util.SerializationUtils.deserialize;
+import static org.springframework.util.SerializationUtils.serialize;
+
+public class TwoLevelCache extends AbstractValueAdaptingCache implements LocalCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private static final Counter CACHE_REQUESTS =
+            Counter.build()
+                    .name("two_level_cache_requests_total")
+                    .help("Two level cache lookups by cache, tier and result.")
+                    .labelNames("cache", "tier", "result")
+                    .register();
+
+    private static final Counter STALE_SERVED =
+            Counter.build()
+                    .name("two_level_cache_stale_served_total")
+                    .help("Entries served past their refresh-ahead threshold, by cache.")
+                    .labelNames("cache")
+                    .register();
+
+    private static final Counter REFRESHES =
+            Counter.build()
+                    .name("two_level_cache_refreshes_total")
+                    .help("Refresh-ahead attempts by cache, refresh group and result.")
+                    .labelNames("cache", "group", "result")
+                    .register();
+
+    private static final Histogram REFRESH_DURATION =
+            Histogram.build()
+                    .name("two_level_cache_refresh_duration_seconds")
+                    .help("Duration of background refresh-ahead loads, by cache and refresh group.")
+                    .labelNames("cache", "group")
+                    .register();
+
+    private static final String LOCAL = "local";
+    private static final String SHARED = "shared";
+
+    private final String name;
+
+    private final Cache<Object, CachedValue> localCache;
+
+    private final SharedCacheStore sharedCacheStore;
+
+    private final long ttlInMillis;
+
+    private long refreshAfterInMillis = Long.MAX_VALUE;
+    private Executor refreshExecutor;
+    private int maxConcurrentRefreshesPerGroup;
+    private Function<Object, String> refreshGroup;
+
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final Map<String, Semaphore> refreshPermits = new ConcurrentHashMap<>();
+
+    public TwoLevelCache(String name, long localMaximumSize, long localTtlInSeconds, SharedCacheStore sharedCacheStore, long ttlInSeconds) {
+        super(false);
+        this.name = name;
+        this.localCache = newBuilder().maximumSize(localMaximumSize).expireAfterWrite(localTtlInSeconds, SECONDS).build();
+        this.sharedCacheStore = sharedCacheStore;
+        this.ttlInMillis = SECONDS.toMillis(ttlInSeconds);
+    }
+
+    public TwoLevelCache refreshAhead(double refreshAfterFraction, Executor refreshExecutor, int maxConcurrentRefreshesPerGroup, Function<Object, String> refreshGroup) {
+        this.refreshAfterInMillis = (long) (ttlInMillis * refreshAfterFraction);
+        this.refreshExecutor = refreshExecutor;
+        this.maxConcurrentRefreshesPerGroup = maxConcurrentRefreshesPerGroup;
+        this.refreshGroup = refreshGroup;
+        return this;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        CachedValue cached = lookupLocal(key);
+        record(LOCAL, cached != null);
+        if (cached == null) {
+            cached = lookupShared(key);
+            if (cached != null) {
+                localCache.put(key, cached);
+            }
+        }
+        return cached == null ? null : cached.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        expireLocal(key);
+        boolean[] loaded = {false};
+        try {
+            CachedValue cached = localCache.get(key, () -> {
+                loaded[0] = true;
+                CachedValue shared = lookupShared(key);
+                return shared != null ? shared : load(key, valueLoader);
+            });
+            refreshAheadIfStale(key, cached, valueLoader);
+            return (T) cached.value;
+        } catch (InvalidCacheLoadException e) {
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } finally {
+            record(LOCAL, !loaded[0]);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        CachedValue cached = new CachedValue(value);
+        localCache.put(key, cached);
+        putShared(key, cached);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        localCache.invalidate(key);
+        sharedCacheStore.evict(name, key.toString());
+    }
+
+    @Override
+    public void clear() {
+        localCache.invalidateAll();
+        sharedCacheStore.clear(name);
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        localCache.invalidate(key);
+    }
+
+    @Override
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    private CachedValue lookupLocal(Object key) {
+        expireLocal(key);
+        return localCache.getIfPresent(key);
+    }
+
+    private void expireLocal(Object key) {
+        CachedValue cached = localCache.getIfPresent(key);
+        if (cached != null && cached.age() >= ttlInMillis) {
+            localCache.invalidate(key);
+        }
+    }
+
+    private CachedValue load(Object key, Callable<?> valueLoader) throws Exception {
+        Object value = valueLoader.call();
+        if (value == null) {
+            return null;
+        }
+        CachedValue cached = new CachedValue(value);
+        putShared(key, cached);
+        return cached;
+    }
+
+    private void refreshAheadIfStale(Object key, CachedValue cached, Callable<?> valueLoader) {
+        if (cached.age() < refreshAfterInMillis) {
+            return;
+        }
+        STALE_SERVED.labels(name).inc();
+        if (!refreshing.add(key)) {
+            return;
+        }
+        String group = refreshGroup.apply(cached.value);
+        Semaphore permits = refreshPermits.computeIfAbsent(group, g -> new Semaphore(maxConcurrentRefreshesPerGroup));
+        if (!permits.tryAcquire()) {
+            refreshing.remove(key);
+            REFRESHES.labels(name, group, "throttled").inc();
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, group, valueLoader, permits));
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            refreshing.remove(key);
+            REFRESHES.labels(name, group, "rejected").inc();
+        }
+    }
+
+    private void refresh(Object key, String group, Callable<?> valueLoader, Semaphore permits) {
+        Histogram.Timer timer = REFRESH_DURATION.labels(name, group).startTimer();
+        try {
+            CachedValue refreshed = load(key, valueLoader);
+            if (refreshed != null) {
+                localCache.put(key, refreshed);
+            }
+            REFRESHES.labels(name, group, "success").inc();
+        } catch (Exception e) {
+            LOGGER.warn("Refresh-ahead failed for " + name + ": " + e.getMessage());
+            REFRESHES.labels(name, group, "failure").inc();
+        } finally {
+            timer.observeDuration();
+            permits.release();
+            refreshing.remove(key);
+        }
+    }
+
+    private CachedValue lookupShared(Object key) {
+        try {
+            byte[] value = sharedCacheStore.get(name, key.toString());
+            Object cached = value == null ? null : deserialize(value);
+            record(SHARED, cached instanceof CachedValue);
+            return cached instanceof CachedValue ? (CachedValue) cached : null;
+        } catch (DataAccessException | IllegalArgumentException | IllegalStateException e) {
+            LOGGER.warn("Shared cache lookup failed for " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void putShared(Object key, CachedValue cached) {
+        try {
+            sharedCacheStore.put(name, key.toString(), serialize(cached), MILLISECONDS.toSeconds(ttlInMillis));
+        } catch (DataAccessException | IllegalArgumentException e) {
+            LOGGER.warn("Shared cache put failed for " + name + ": " + e.getMessage());
+        }
+    }
+
+    private void record(String tier, boolean hit) {
+        CACHE_REQUESTS.labels(name, tier, hit ? "hit" : "miss").inc();
+    }
+
+    private static class CachedValue implements Serializable {
+
+        private final Object value;
+        private final long loadedAt;
+
+        private CachedValue(Object value) {
+            this.value = value;
+            this.loadedAt = currentTimeMillis();
+        }
+
+        private long age() {
+            return currentTimeMillis() - loadedAt;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache.hibernate;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.ixortalk.authorization.server.cache.LocalCache;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.TransactionalDataRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.CollectionRegionAccessStrategy;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.NaturalIdRegionAccessStrategy;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static com.google.common.collect.ImmutableMap.copyOf;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticGetCollectionId;
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticGetEntityId;
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticGetNaturalIdValues;
+import static org.hibernate.cache.spi.access.AccessType.NONSTRICT_READ_WRITE;
+import static org.hibernate.cache.spi.access.AccessType.READ_ONLY;
+
+abstract class GuavaRegion implements TransactionalDataRegion, LocalCache {
+
+    private static final int LOCK_TIMEOUT_IN_MILLIS = 60000;
+
+    private final String name;
+    private final CacheDataDescription metadata;
+    private final GuavaRegionFactory regionFactory;
+    private final Cache<Object, Object> cache;
+
+    GuavaRegion(String name, CacheDataDescription metadata, GuavaRegionFactory regionFactory, long maximumSize, long ttlInSeconds) {
+        this.name = name;
+        this.metadata = metadata;
+        this.regionFactory = regionFactory;
+        this.cache =
+                newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(ttlInSeconds, SECONDS)
+                        .recordStats()
+                        .build();
+    }
+
+    Object get(Object key) {
+        return cache.getIfPresent(key);
+    }
+
+    void put(Object key, Object value) {
+        cache.put(key, value);
+    }
+
+    void evict(Object key) {
+        cache.invalidate(key);
+    }
+
+    void evictAll() {
+        cache.invalidateAll();
+    }
+
+    void invalidate(Object key) {
+        evict(key);
+        regionFactory.publishEviction(name, keyString(key));
+    }
+
+    void invalidateAll() {
+        evictAll();
+        regionFactory.publishClear(name);
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        cache.asMap().keySet().removeIf(cached -> key.equals(keyString(cached)));
+    }
+
+    @Override
+    public void clearLocal() {
+        evictAll();
+    }
+
+    abstract String keyString(Object key);
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    GuavaRegionFactory getRegionFactory() {
+        return regionFactory;
+    }
+
+    void assertSupported(AccessType accessType) {
+        if (accessType != NONSTRICT_READ_WRITE && accessType != READ_ONLY) {
+            throw new CacheException("Access type " + accessType.getExternalName() + " is not supported for region " + name);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void destroy() throws CacheException {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public long getSizeInMemory() {
+        return -1;
+    }
+
+    @Override
+    public long getElementCountInMemory() {
+        return cache.size();
+    }
+
+    @Override
+    public long getElementCountOnDisk() {
+        return 0;
+    }
+
+    @Override
+    public Map toMap() {
+        return copyOf(cache.asMap());
+    }
+
+    @Override
+    public long nextTimestamp() {
+        return regionFactory.nextTimestamp();
+    }
+
+    @Override
+    public int getTimeout() {
+        return LOCK_TIMEOUT_IN_MILLIS;
+    }
+
+    @Override
+    public boolean isTransactionAware() {
+        return false;
+    }
+
+    @Override
+    public CacheDataDescription getCacheDataDescription() {
+        return metadata;
+    }
+
+    static class Entity extends GuavaRegion implements EntityRegion {
+
+        Entity(String name, CacheDataDescription metadata, GuavaRegionFactory regionFactory, long maximumSize, long ttlInSeconds) {
+            super(name, metadata, regionFactory, maximumSize, ttlInSeconds);
+        }
+
+        @Override
+        String keyString(Object key) {
+            return String.valueOf(staticGetEntityId(key));
+        }
+
+        @Override
+        public EntityRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+            assertSupported(accessType);
+            return new NonstrictReadWriteAccessStrategy.Entity(this);
+        }
+    }
+
+    static class Collection extends GuavaRegion implements CollectionRegion {
+
+        Collection(String name, CacheDataDescription metadata, GuavaRegionFactory regionFactory, long maximumSize, long ttlInSeconds) {
+            super(name, metadata, regionFactory, maximumSize, ttlInSeconds);
+        }
+
+        @Override
+        String keyString(Object key) {
+            return String.valueOf(staticGetCollectionId(key));
+        }
+
+        @Override
+        public CollectionRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+            assertSupported(accessType);
+            return new NonstrictReadWriteAccessStrategy.Collection(this);
+        }
+    }
+
+    static class NaturalId extends GuavaRegion implements NaturalIdRegion {
+
+        NaturalId(String name, CacheDataDescription metadata, GuavaRegionFactory regionFactory, long maximumSize, long ttlInSeconds) {
+            super(name, metadata, regionFactory, maximumSize, ttlInSeconds);
+        }
+
+        @Override
+        String keyString(Object key) {
+            return Arrays.toString(staticGetNaturalIdValues(key));
+        }
+
+        @Override
+        public NaturalIdRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+            assertSupported(accessType);
+            return new NonstrictReadWriteAccessStrategy.NaturalId(this);
+        }
+    }
+}
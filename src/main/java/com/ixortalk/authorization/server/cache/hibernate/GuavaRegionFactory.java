@@ -0,0 +1,186 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache.hibernate;
+
+import com.google.common.cache.CacheStats;
+import com.ixortalk.authorization.server.cache.LocalCache;
+import com.ixortalk.authorization.server.cache.SharedCacheStore;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hibernate.cache.spi.access.AccessType.NONSTRICT_READ_WRITE;
+
+public class GuavaRegionFactory implements RegionFactory {
+
+    private static final Map<String, GuavaRegion> REGIONS = new ConcurrentHashMap<>();
+
+    static {
+        new RegionCollector().register();
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GuavaRegionFactory.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final long maximumSize;
+    private final long ttlInSeconds;
+    private final Supplier<SharedCacheStore> sharedCacheStore;
+
+    public GuavaRegionFactory(long maximumSize, long ttlInSeconds, Supplier<SharedCacheStore> sharedCacheStore) {
+        this.maximumSize = maximumSize;
+        this.ttlInSeconds = ttlInSeconds;
+        this.sharedCacheStore = sharedCacheStore;
+    }
+
+    public static LocalCache region(String regionName) {
+        return REGIONS.get(regionName);
+    }
+
+    @Override
+    public void start(SessionFactoryOptions settings, Properties properties) throws CacheException {
+    }
+
+    @Override
+    public void stop() {
+        REGIONS.values().removeIf(region -> region.getRegionFactory() == this);
+    }
+
+    @Override
+    public boolean isMinimalPutsEnabledByDefault() {
+        return false;
+    }
+
+    @Override
+    public AccessType getDefaultAccessType() {
+        return NONSTRICT_READ_WRITE;
+    }
+
+    @Override
+    public long nextTimestamp() {
+        return currentTimeMillis();
+    }
+
+    @Override
+    public EntityRegion buildEntityRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new GuavaRegion.Entity(regionName, metadata, this, maximumSize, ttlInSeconds));
+    }
+
+    @Override
+    public NaturalIdRegion buildNaturalIdRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new GuavaRegion.NaturalId(regionName, metadata, this, maximumSize, ttlInSeconds));
+    }
+
+    @Override
+    public CollectionRegion buildCollectionRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new GuavaRegion.Collection(regionName, metadata, this, maximumSize, ttlInSeconds));
+    }
+
+    @Override
+    public QueryResultsRegion buildQueryResultsRegion(String regionName, Properties properties) throws CacheException {
+        throw new CacheException("Query caching is not supported by " + getClass().getSimpleName() + ", leave hibernate.cache.use_query_cache disabled");
+    }
+
+    @Override
+    public TimestampsRegion buildTimestampsRegion(String regionName, Properties properties) throws CacheException {
+        throw new CacheException("Query caching is not supported by " + getClass().getSimpleName() + ", leave hibernate.cache.use_query_cache disabled");
+    }
+
+    void publishEviction(String regionName, String key) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            publishClear(regionName);
+            return;
+        }
+        try {
+            sharedCacheStore.get().evict(regionName, key);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Shared eviction failed for " + regionName + ": " + e.getMessage());
+        }
+    }
+
+    void publishClear(String regionName) {
+        try {
+            sharedCacheStore.get().clear(regionName);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Shared eviction failed for " + regionName + ": " + e.getMessage());
+        }
+    }
+
+    private <R extends GuavaRegion> R register(R region) {
+        REGIONS.put(region.getName(), region);
+        return region;
+    }
+
+    private static class RegionCollector extends Collector {
+
+        @Override
+        public List<MetricFamilySamples> collect() {
+            CounterMetricFamily requests =
+                    new CounterMetricFamily(
+                            "hibernate_cache_requests_total",
+                            "Hibernate second level cache lookups, by region and result (hit or miss).",
+                            asList("region", "result"));
+            CounterMetricFamily evictions =
+                    new CounterMetricFamily(
+                            "hibernate_cache_evictions_total",
+                            "Hibernate second level cache entries evicted for size or expiry, by region.",
+                            singletonList("region"));
+            GaugeMetricFamily entries =
+                    new GaugeMetricFamily(
+                            "hibernate_cache_entries",
+                            "Entries in the Hibernate second level cache, by region.",
+                            singletonList("region"));
+            REGIONS.forEach((name, region) -> {
+                CacheStats stats = region.stats();
+                requests.addMetric(asList(name, "hit"), stats.hitCount());
+                requests.addMetric(asList(name, "miss"), stats.missCount());
+                evictions.addMetric(singletonList(name), stats.evictionCount());
+                entries.addMetric(singletonList(name), region.getElementCountInMemory());
+            });
+            return asList(requests, evictions, entries);
+        }
+    }
+}
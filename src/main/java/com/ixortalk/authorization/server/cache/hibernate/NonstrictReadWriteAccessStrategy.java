@@ -0,0 +1,228 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache.hibernate;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.access.CollectionRegionAccessStrategy;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.NaturalIdRegionAccessStrategy;
+import org.hibernate.cache.spi.access.RegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticCreateCollectionKey;
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticCreateEntityKey;
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticCreateNaturalIdKey;
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticGetCollectionId;
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticGetEntityId;
+import static org.hibernate.cache.internal.DefaultCacheKeysFactory.staticGetNaturalIdValues;
+
+/**
+ * Never caches on write: updates and removals evict the entry both before and after the transaction completes,
+ * so the next load repopulates it from the database. Evictions after completion, and explicit evictions, are also
+ * published to the other nodes.
+ */
+abstract class NonstrictReadWriteAccessStrategy<R extends GuavaRegion> implements RegionAccessStrategy {
+
+    final R region;
+
+    NonstrictReadWriteAccessStrategy(R region) {
+        this.region = region;
+    }
+
+    @Override
+    public Object get(SessionImplementor session, Object key, long txTimestamp) throws CacheException {
+        return region.get(key);
+    }
+
+    @Override
+    public boolean putFromLoad(SessionImplementor session, Object key, Object value, long txTimestamp, Object version) throws CacheException {
+        return putFromLoad(session, key, value, txTimestamp, version, false);
+    }
+
+    @Override
+    public boolean putFromLoad(SessionImplementor session, Object key, Object value, long txTimestamp, Object version, boolean minimalPutOverride) throws CacheException {
+        if (minimalPutOverride && region.contains(key)) {
+            return false;
+        }
+        region.put(key, value);
+        return true;
+    }
+
+    @Override
+    public SoftLock lockItem(SessionImplementor session, Object key, Object version) throws CacheException {
+        return null;
+    }
+
+    @Override
+    public SoftLock lockRegion() throws CacheException {
+        return null;
+    }
+
+    @Override
+    public void unlockItem(SessionImplementor session, Object key, SoftLock lock) throws CacheException {
+        region.invalidate(key);
+    }
+
+    @Override
+    public void unlockRegion(SoftLock lock) throws CacheException {
+        region.invalidateAll();
+    }
+
+    @Override
+    public void remove(SessionImplementor session, Object key) throws CacheException {
+        region.evict(key);
+    }
+
+    @Override
+    public void removeAll() throws CacheException {
+        region.invalidateAll();
+    }
+
+    @Override
+    public void evict(Object key) throws CacheException {
+        region.invalidate(key);
+    }
+
+    @Override
+    public void evictAll() throws CacheException {
+        region.invalidateAll();
+    }
+
+    static class Entity extends NonstrictReadWriteAccessStrategy<GuavaRegion.Entity> implements EntityRegionAccessStrategy {
+
+        Entity(GuavaRegion.Entity region) {
+            super(region);
+        }
+
+        @Override
+        public Object generateCacheKey(Object id, EntityPersister persister, SessionFactoryImplementor factory, String tenantIdentifier) {
+            return staticCreateEntityKey(id, persister, factory, tenantIdentifier);
+        }
+
+        @Override
+        public Object getCacheKeyId(Object cacheKey) {
+            return staticGetEntityId(cacheKey);
+        }
+
+        @Override
+        public EntityRegion getRegion() {
+            return region;
+        }
+
+        @Override
+        public boolean insert(SessionImplementor session, Object key, Object value, Object version) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean afterInsert(SessionImplementor session, Object key, Object value, Object version) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean update(SessionImplementor session, Object key, Object value, Object currentVersion, Object previousVersion) throws CacheException {
+            remove(session, key);
+            return false;
+        }
+
+        @Override
+        public boolean afterUpdate(SessionImplementor session, Object key, Object value, Object currentVersion, Object previousVersion, SoftLock lock) throws CacheException {
+            unlockItem(session, key, lock);
+            return false;
+        }
+    }
+
+    static class Collection extends NonstrictReadWriteAccessStrategy<GuavaRegion.Collection> implements CollectionRegionAccessStrategy {
+
+        Collection(GuavaRegion.Collection region) {
+            super(region);
+        }
+
+        @Override
+        public Object generateCacheKey(Object id, CollectionPersister persister, SessionFactoryImplementor factory, String tenantIdentifier) {
+            return staticCreateCollectionKey(id, persister, factory, tenantIdentifier);
+        }
+
+        @Override
+        public Object getCacheKeyId(Object cacheKey) {
+            return staticGetCollectionId(cacheKey);
+        }
+
+        @Override
+        public CollectionRegion getRegion() {
+            return region;
+        }
+    }
+
+    static class NaturalId extends NonstrictReadWriteAccessStrategy<GuavaRegion.NaturalId> implements NaturalIdRegionAccessStrategy {
+
+        NaturalId(GuavaRegion.NaturalId region) {
+            super(region);
+        }
+
+        @Override
+        public Object generateCacheKey(Object[] naturalIdValues, EntityPersister persister, SessionImplementor session) {
+            return staticCreateNaturalIdKey(naturalIdValues, persister, session);
+        }
+
+        @Override
+        public Object[] getNaturalIdValues(Object cacheKey) {
+            return staticGetNaturalIdValues(cacheKey);
+        }
+
+        @Override
+        public NaturalIdRegion getRegion() {
+            return region;
+        }
+
+        @Override
+        public boolean insert(SessionImplementor session, Object key, Object value) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean afterInsert(SessionImplementor session, Object key, Object value) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean update(SessionImplementor session, Object key, Object value) throws CacheException {
+            remove(session, key);
+            return false;
+        }
+
+        @Override
+        public boolean afterUpdate(SessionImplementor session, Object key, Object value, SoftLock lock) throws CacheException {
+            unlockItem(session, key, lock);
+            return false;
+        }
+    }
+}
@@ -23,7 +23,20 @@
  */
 package com.ixortalk.authorization.server.config;
 
+import com.ixortalk.authorization.server.cache.SharedCacheStore;
+import com.ixortalk.authorization.server.rest.UserProfileRestResource;
+import com.ixortalk.authorization.server.security.CachingUserDetailsService;
 import com.ixortalk.authorization.server.security.UserDetailsService;
+import com.ixortalk.authorization.server.security.signedtoken.SignedAccessTokenConverter;
+import com.ixortalk.authorization.server.security.tokenstore.BinaryTokenCodec;
+import com.ixortalk.authorization.server.security.tokenstore.CachingTokenStore;
+import com.ixortalk.authorization.server.security.tokenstore.CodecJdbcTokenStore;
+import com.ixortalk.authorization.server.security.tokenstore.InstrumentedTokenStore;
+import com.ixortalk.authorization.server.security.tokenstore.JavaSerializationTokenCodec;
+import com.ixortalk.authorization.server.security.tokenstore.LifecycleCountingTokenStore;
+import com.ixortalk.authorization.server.security.tokenstore.LiveAccessTokens;
+import com.ixortalk.authorization.server.security.tokenstore.TokenCodec;
+import com.ixortalk.authorization.server.security.tokenstore.TokenStoreIndexVerifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
@@ -32,7 +45,6 @@ import org.springframework.security.oauth2.config.annotation.web.configuration.E
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.token.TokenStore;
-import org.springframework.security.oauth2.provider.token.store.JdbcTokenStore;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 import org.springframework.web.servlet.view.RedirectView;
@@ -42,6 +54,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import javax.sql.DataSource;
+import java.util.Optional;
 
 @Configuration
 @EnableAuthorizationServer
@@ -53,15 +66,29 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
     @Inject
     private DataSource dataSource;
 
+    @Inject
+    private Optional<SignedAccessTokenConverter> signedAccessTokenConverter;
+
+    @Inject
+    private UserProfileRestResource userProfileRestResource;
+
+    @Inject
+    private SharedCacheStore sharedCacheStore;
+
     @Bean
     public TokenStore tokenStore() {
-        return new JdbcTokenStore(dataSource);
+        IxorTalkConfigProperties.TokenStoreCache tokenStoreCache = ixorTalkConfigProperties.getSecurity().getTokenStoreCache();
+        TokenStore tokenStore = instrumented("tokenStore", createCodecJdbcTokenStore("tokenStore"));
+        if (!tokenStoreCache.isEnabled()) {
+            return new LifecycleCountingTokenStore(tokenStore);
+        }
+        return new LifecycleCountingTokenStore(new CachingTokenStore("tokenStore", tokenStore, tokenStoreCache.getMaximumSize(), tokenStoreCache.getTtlInSeconds()));
     }
 
     @Bean
     public TokenStore thirdPartyTokenStore() {
-        JdbcTokenStore thirdPartyTokenStore = new JdbcTokenStore(dataSource);
-        thirdPartyTokenStore.setInsertAccessTokenSql("insert into third_pty_oauth_access_token (token_id, token, authentication_id, user_name, client_id, authentication, refresh_token) values (?, ?, ?, ?, ?, ?, ?)");
+        CodecJdbcTokenStore thirdPartyTokenStore = createCodecJdbcTokenStore("thirdPartyTokenStore");
+        thirdPartyTokenStore.setInsertAccessTokenSql("insert into third_pty_oauth_access_token (token_id, token, authentication_id, user_name, client_id, authentication, refresh_token, expiration) values (?, ?, ?, ?, ?, ?, ?, ?)");
         thirdPartyTokenStore.setSelectAccessTokenSql("select token_id, token from third_pty_oauth_access_token where token_id = ?");
         thirdPartyTokenStore.setSelectAccessTokenAuthenticationSql("select token_id, authentication from third_pty_oauth_access_token where token_id = ?");
         thirdPartyTokenStore.setSelectAccessTokenFromAuthenticationSql("select token_id, token from third_pty_oauth_access_token where authentication_id = ?");
@@ -70,11 +97,42 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
         thirdPartyTokenStore.setSelectAccessTokensFromClientIdSql("select token_id, token from third_pty_oauth_access_token where client_id = ?");
         thirdPartyTokenStore.setDeleteAccessTokenSql("delete from third_pty_oauth_access_token where token_id = ?");
         thirdPartyTokenStore.setDeleteAccessTokenFromRefreshTokenSql("delete from third_pty_oauth_access_token where refresh_token = ?");
-        thirdPartyTokenStore.setInsertRefreshTokenSql("insert into third_pty_oauth_refresh_token (token_id, token, authentication) values (?, ?, ?)");
+        thirdPartyTokenStore.setInsertRefreshTokenSql("insert into third_pty_oauth_refresh_token (token_id, token, authentication, expiration) values (?, ?, ?, ?)");
         thirdPartyTokenStore.setSelectRefreshTokenSql("select token_id, token from third_pty_oauth_refresh_token where token_id = ?");
         thirdPartyTokenStore.setSelectRefreshTokenAuthenticationSql("select token_id, authentication from third_pty_oauth_refresh_token where token_id = ?");
         thirdPartyTokenStore.setDeleteRefreshTokenSql("delete from third_pty_oauth_refresh_token where token_id = ?");
-        return thirdPartyTokenStore;
+        thirdPartyTokenStore.setUpdateAccessTokenSql("update third_pty_oauth_access_token set token = ? where token_id = ?");
+        thirdPartyTokenStore.setUpdateAccessTokenAuthenticationSql("update third_pty_oauth_access_token set authentication = ? where token_id = ?");
+        thirdPartyTokenStore.setUpdateRefreshTokenSql("update third_pty_oauth_refresh_token set token = ? where token_id = ?");
+        thirdPartyTokenStore.setUpdateRefreshTokenAuthenticationSql("update third_pty_oauth_refresh_token set authentication = ? where token_id = ?");
+        thirdPartyTokenStore.setRefreshableRetentionInSeconds(ixorTalkConfigProperties.getSecurity().getTokenPurge().getThirdPartyRefreshableRetentionInSeconds());
+        return instrumented("thirdPartyTokenStore", thirdPartyTokenStore);
+    }
+
+    private CodecJdbcTokenStore createCodecJdbcTokenStore(String name) {
+        TokenCodec binaryTokenCodec = new BinaryTokenCodec();
+        TokenCodec javaSerializationTokenCodec = new JavaSerializationTokenCodec();
+        CodecJdbcTokenStore tokenStore = ixorTalkConfigProperties.getSecurity().getTokenCodec() == IxorTalkConfigProperties.TokenCodecType.JAVA ?
+                new CodecJdbcTokenStore(dataSource, javaSerializationTokenCodec, binaryTokenCodec) :
+                new CodecJdbcTokenStore(dataSource, binaryTokenCodec, javaSerializationTokenCodec);
+        tokenStore.setName(name);
+        return tokenStore;
+    }
+
+    private TokenStore instrumented(String name, TokenStore tokenStore) {
+        return new InstrumentedTokenStore(name, tokenStore, ixorTalkConfigProperties.getSecurity().getTokenMetrics().getSlowOperationThresholdInMillis());
+    }
+
+    @Bean
+    public LiveAccessTokens liveAccessTokens() {
+        return new LiveAccessTokens(dataSource, ixorTalkConfigProperties.getSecurity().getTokenMetrics().getLiveTokensRefreshIntervalInSeconds())
+                .count("tokenStore", "oauth_access_token")
+                .count("thirdPartyTokenStore", "third_pty_oauth_access_token");
+    }
+
+    @Bean
+    public TokenStoreIndexVerifier tokenStoreIndexVerifier() {
+        return new TokenStoreIndexVerifier(dataSource, tokenStore(), thirdPartyTokenStore());
     }
 
     @Override
@@ -101,11 +159,12 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
                         }
                     }
                 });
+        signedAccessTokenConverter.ifPresent(endpoints::accessTokenConverter);
     }
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        return new UserDetailsService();
+    public CachingUserDetailsService userDetailsService() {
+        return new CachingUserDetailsService(new UserDetailsService(userProfileRestResource), sharedCacheStore, ixorTalkConfigProperties.getSecurity().getUserDetailsCache());
     }
 
     @Override
@@ -132,5 +191,8 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
     @Override
     public void configure(AuthorizationServerSecurityConfigurer oauthServer) {
         oauthServer.allowFormAuthenticationForClients();
+        if (signedAccessTokenConverter.isPresent()) {
+            oauthServer.tokenKeyAccess("permitAll()");
+        }
     }
 }
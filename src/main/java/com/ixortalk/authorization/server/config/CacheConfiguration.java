@@ -23,15 +23,32 @@
  */
 package com.ixortalk.authorization.server.config;
 
-import org.springframework.cache.concurrent.ConcurrentMapCacheFactoryBean;
+import com.ixortalk.authorization.server.cache.InMemorySharedCacheStore;
+import com.ixortalk.authorization.server.cache.JdbcSharedCacheStore;
+import com.ixortalk.authorization.server.cache.LocalCache;
+import com.ixortalk.authorization.server.cache.SharedCacheStore;
+import com.ixortalk.authorization.server.cache.SharedCacheSynchronizer;
+import com.ixortalk.authorization.server.cache.TwoLevelCache;
+import com.ixortalk.authorization.server.cache.hibernate.GuavaRegionFactory;
+import com.ixortalk.authorization.server.rest.SerializedUserInfo;
+import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyOAuth2ClientContexts;
+import com.ixortalk.authorization.server.util.DetachedRequestTaskDecorator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.token.DefaultAccessTokenRequest;
 
 import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
 
-import static com.google.common.cache.CacheBuilder.newBuilder;
-import static com.ixortalk.authorization.server.rest.UserInfoController.USER_INFO_CACHE_NAME;
-import static java.util.concurrent.TimeUnit.SECONDS;
+import static com.ixortalk.authorization.server.rest.UserInfoService.USER_INFO_CACHE_NAME;
+import static java.lang.Math.min;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static org.springframework.aop.scope.ScopedProxyUtils.getTargetBeanName;
 
 @Configuration
 public class CacheConfiguration {
@@ -39,15 +56,54 @@ public class CacheConfiguration {
     @Inject
     private IxorTalkConfigProperties ixorTalkConfigProperties;
 
+    @Inject
+    private DataSource dataSource;
+
+    @Bean
+    public SharedCacheStore sharedCacheStore() {
+        if (ixorTalkConfigProperties.getSecurity().getUserInfoCache().getSharedStore() == IxorTalkConfigProperties.SharedCacheStoreType.IN_MEMORY) {
+            return new InMemorySharedCacheStore();
+        }
+        return new JdbcSharedCacheStore(dataSource);
+    }
+
+    @Bean
+    public TwoLevelCache userInfoCache() {
+        IxorTalkConfigProperties.UserInfoCache userInfoCache = ixorTalkConfigProperties.getSecurity().getUserInfoCache();
+        TwoLevelCache twoLevelCache = new TwoLevelCache(
+                USER_INFO_CACHE_NAME,
+                userInfoCache.getLocalMaximumSize(),
+                min(userInfoCache.getLocalTtlInSeconds(), userInfoCache.getTtlInSeconds()),
+                sharedCacheStore(),
+                userInfoCache.getTtlInSeconds());
+        if (!userInfoCache.getRefreshAhead().isEnabled()) {
+            return twoLevelCache;
+        }
+        return twoLevelCache.refreshAhead(
+                userInfoCache.getRefreshAhead().getRefreshAfterFraction(),
+                userInfoCacheRefreshExecutor(),
+                userInfoCache.getRefreshAhead().getMaxConcurrentRefreshesPerProvider(),
+                userInfo -> ((SerializedUserInfo) userInfo).getLoginProvider());
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor userInfoCacheRefreshExecutor() {
+        IxorTalkConfigProperties.UserInfoCache.RefreshAhead refreshAhead = ixorTalkConfigProperties.getSecurity().getUserInfoCache().getRefreshAhead();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("user-info-refresh-");
+        executor.setCorePoolSize(refreshAhead.getThreads());
+        executor.setMaxPoolSize(refreshAhead.getThreads());
+        executor.setQueueCapacity(refreshAhead.getQueueCapacity());
+        executor.setTaskDecorator(
+                new DetachedRequestTaskDecorator()
+                        .withAttribute(getTargetBeanName("oauth2ClientContext"), DefaultOAuth2ClientContext::new)
+                        .withAttribute(getTargetBeanName("thirdPartyOAuth2ClientContexts"), () -> new ThirdPartyOAuth2ClientContexts(new DefaultAccessTokenRequest())));
+        return executor;
+    }
+
     @Bean
-    public ConcurrentMapCacheFactoryBean cacheBean(){
-        ConcurrentMapCacheFactoryBean cacheFactoryBean = new ConcurrentMapCacheFactoryBean();
-        cacheFactoryBean.setName(USER_INFO_CACHE_NAME);
-        cacheFactoryBean.setStore(
-                newBuilder()
-                        .expireAfterWrite(ixorTalkConfigProperties.getSecurity().getUserInfoCache().getTtlInSeconds(), SECONDS)
-                        .build()
-                        .asMap());
-        return cacheFactoryBean;
+    public SharedCacheSynchronizer sharedCacheSynchronizer(List<LocalCache> localCaches) {
+        Map<String, LocalCache> caches = localCaches.stream().collect(toMap(LocalCache::getName, identity()));
+        return new SharedCacheSynchronizer(sharedCacheStore(), cacheName -> caches.containsKey(cacheName) ? caches.get(cacheName) : GuavaRegionFactory.region(cacheName));
     }
 }
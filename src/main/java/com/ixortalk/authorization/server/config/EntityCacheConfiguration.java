@@ -0,0 +1,77 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.config;
+
+import com.ixortalk.authorization.server.cache.SharedCacheStore;
+import com.ixortalk.authorization.server.cache.hibernate.GuavaRegionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import java.util.Map;
+
+import static org.hibernate.cfg.AvailableSettings.CACHE_REGION_FACTORY;
+import static org.hibernate.cfg.AvailableSettings.USE_QUERY_CACHE;
+import static org.hibernate.cfg.AvailableSettings.USE_SECOND_LEVEL_CACHE;
+
+@Configuration
+public class EntityCacheConfiguration {
+
+    @Bean
+    public static BeanPostProcessor entityCacheRegionFactoryPostProcessor(ObjectProvider<IxorTalkConfigProperties> ixorTalkConfigProperties, ObjectProvider<SharedCacheStore> sharedCacheStore) {
+        return new RegionFactoryPostProcessor(ixorTalkConfigProperties, sharedCacheStore);
+    }
+
+    private static class RegionFactoryPostProcessor implements BeanPostProcessor {
+
+        private final ObjectProvider<IxorTalkConfigProperties> ixorTalkConfigProperties;
+        private final ObjectProvider<SharedCacheStore> sharedCacheStore;
+
+        private RegionFactoryPostProcessor(ObjectProvider<IxorTalkConfigProperties> ixorTalkConfigProperties, ObjectProvider<SharedCacheStore> sharedCacheStore) {
+            this.ixorTalkConfigProperties = ixorTalkConfigProperties;
+            this.sharedCacheStore = sharedCacheStore;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+                IxorTalkConfigProperties.EntityCache entityCache = ixorTalkConfigProperties.getObject().getEntityCache();
+                Map<String, Object> jpaPropertyMap = ((LocalContainerEntityManagerFactoryBean) bean).getJpaPropertyMap();
+                jpaPropertyMap.put(USE_SECOND_LEVEL_CACHE, entityCache.isEnabled());
+                jpaPropertyMap.put(USE_QUERY_CACHE, false);
+                if (entityCache.isEnabled()) {
+                    jpaPropertyMap.put(CACHE_REGION_FACTORY, new GuavaRegionFactory(entityCache.getMaximumSize(), entityCache.getTtlInSeconds(), sharedCacheStore::getObject));
+                }
+            }
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean;
+        }
+    }
+}
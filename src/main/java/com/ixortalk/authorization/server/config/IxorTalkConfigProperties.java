@@ -45,6 +45,12 @@ public class IxorTalkConfigProperties {
 
     private Logout logout = new Logout();
 
+    private UserProfileImport userProfileImport = new UserProfileImport();
+
+    private UserProfileExport userProfileExport = new UserProfileExport();
+
+    private EntityCache entityCache = new EntityCache();
+
     public Security getSecurity() {
         return security;
     }
@@ -57,12 +63,97 @@ public class IxorTalkConfigProperties {
         return logout;
     }
 
+    public UserProfileImport getUserProfileImport() {
+        return userProfileImport;
+    }
+
+    public UserProfileExport getUserProfileExport() {
+        return userProfileExport;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    public static class UserProfileImport {
+
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class UserProfileExport {
+
+        private int fetchSize = 500;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class EntityCache {
+
+        private boolean enabled = true;
+
+        private long maximumSize = 10000;
+
+        private long ttlInSeconds = 3600;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getTtlInSeconds() {
+            return ttlInSeconds;
+        }
+
+        public void setTtlInSeconds(long ttlInSeconds) {
+            this.ttlInSeconds = ttlInSeconds;
+        }
+    }
+
     public static class Security {
 
         private String loginUrl;
 
         private UserInfoCache userInfoCache = new UserInfoCache();
 
+        private TokenStoreCache tokenStoreCache = new TokenStoreCache();
+
+        private TokenCodecType tokenCodec = TokenCodecType.BINARY;
+
+        private SignedTokens signedTokens = new SignedTokens();
+
+        private TokenPurge tokenPurge = new TokenPurge();
+
+        private ProfilePictureCache profilePictureCache = new ProfilePictureCache();
+
+        private UserDetailsCache userDetailsCache = new UserDetailsCache();
+
+        private TokenMetrics tokenMetrics = new TokenMetrics();
+
         private final Authentication authentication = new Authentication();
 
         public String getLoginUrl() {
@@ -73,6 +164,38 @@ public class IxorTalkConfigProperties {
             return userInfoCache;
         }
 
+        public TokenStoreCache getTokenStoreCache() {
+            return tokenStoreCache;
+        }
+
+        public TokenPurge getTokenPurge() {
+            return tokenPurge;
+        }
+
+        public ProfilePictureCache getProfilePictureCache() {
+            return profilePictureCache;
+        }
+
+        public UserDetailsCache getUserDetailsCache() {
+            return userDetailsCache;
+        }
+
+        public TokenMetrics getTokenMetrics() {
+            return tokenMetrics;
+        }
+
+        public SignedTokens getSignedTokens() {
+            return signedTokens;
+        }
+
+        public TokenCodecType getTokenCodec() {
+            return tokenCodec;
+        }
+
+        public void setTokenCodec(TokenCodecType tokenCodec) {
+            this.tokenCodec = tokenCodec;
+        }
+
         public void setLoginUrl(String loginUrl) {
             this.loginUrl = loginUrl;
         }
@@ -188,6 +311,231 @@ public class IxorTalkConfigProperties {
 
         private long ttlInSeconds = 10;
 
+        private long localTtlInSeconds = 5;
+
+        private long localMaximumSize = 10000;
+
+        private SharedCacheStoreType sharedStore = SharedCacheStoreType.JDBC;
+
+        private long evictionPollIntervalInMillis = 1000;
+
+        private RefreshAhead refreshAhead = new RefreshAhead();
+
+        public long getTtlInSeconds() {
+            return ttlInSeconds;
+        }
+
+        public void setTtlInSeconds(long ttlInSeconds) {
+            this.ttlInSeconds = ttlInSeconds;
+        }
+
+        public long getLocalTtlInSeconds() {
+            return localTtlInSeconds;
+        }
+
+        public void setLocalTtlInSeconds(long localTtlInSeconds) {
+            this.localTtlInSeconds = localTtlInSeconds;
+        }
+
+        public long getLocalMaximumSize() {
+            return localMaximumSize;
+        }
+
+        public void setLocalMaximumSize(long localMaximumSize) {
+            this.localMaximumSize = localMaximumSize;
+        }
+
+        public SharedCacheStoreType getSharedStore() {
+            return sharedStore;
+        }
+
+        public void setSharedStore(SharedCacheStoreType sharedStore) {
+            this.sharedStore = sharedStore;
+        }
+
+        public long getEvictionPollIntervalInMillis() {
+            return evictionPollIntervalInMillis;
+        }
+
+        public void setEvictionPollIntervalInMillis(long evictionPollIntervalInMillis) {
+            this.evictionPollIntervalInMillis = evictionPollIntervalInMillis;
+        }
+
+        public RefreshAhead getRefreshAhead() {
+            return refreshAhead;
+        }
+
+        public static class RefreshAhead {
+
+            private boolean enabled = true;
+
+            private double refreshAfterFraction = 0.75;
+
+            private int maxConcurrentRefreshesPerProvider = 4;
+
+            private int threads = 8;
+
+            private int queueCapacity = 100;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public double getRefreshAfterFraction() {
+                return refreshAfterFraction;
+            }
+
+            public void setRefreshAfterFraction(double refreshAfterFraction) {
+                this.refreshAfterFraction = refreshAfterFraction;
+            }
+
+            public int getMaxConcurrentRefreshesPerProvider() {
+                return maxConcurrentRefreshesPerProvider;
+            }
+
+            public void setMaxConcurrentRefreshesPerProvider(int maxConcurrentRefreshesPerProvider) {
+                this.maxConcurrentRefreshesPerProvider = maxConcurrentRefreshesPerProvider;
+            }
+
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+        }
+    }
+
+    public enum SharedCacheStoreType {
+        JDBC, IN_MEMORY
+    }
+
+    public static class UserDetailsCache {
+
+        private long ttlInSeconds = 300;
+
+        private long maximumSize = 10000;
+
+        public long getTtlInSeconds() {
+            return ttlInSeconds;
+        }
+
+        public void setTtlInSeconds(long ttlInSeconds) {
+            this.ttlInSeconds = ttlInSeconds;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+
+    public static class TokenMetrics {
+
+        private long liveTokensRefreshIntervalInSeconds = 60;
+
+        private long slowOperationThresholdInMillis = 100;
+
+        public long getLiveTokensRefreshIntervalInSeconds() {
+            return liveTokensRefreshIntervalInSeconds;
+        }
+
+        public void setLiveTokensRefreshIntervalInSeconds(long liveTokensRefreshIntervalInSeconds) {
+            this.liveTokensRefreshIntervalInSeconds = liveTokensRefreshIntervalInSeconds;
+        }
+
+        public long getSlowOperationThresholdInMillis() {
+            return slowOperationThresholdInMillis;
+        }
+
+        public void setSlowOperationThresholdInMillis(long slowOperationThresholdInMillis) {
+            this.slowOperationThresholdInMillis = slowOperationThresholdInMillis;
+        }
+    }
+
+    public static class ProfilePictureCache {
+
+        private long ttlInSeconds = 86400;
+
+        private long maximumSize = 10000;
+
+        private int threads = 2;
+
+        private int queueCapacity = 100;
+
+        public long getTtlInSeconds() {
+            return ttlInSeconds;
+        }
+
+        public void setTtlInSeconds(long ttlInSeconds) {
+            this.ttlInSeconds = ttlInSeconds;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class TokenStoreCache {
+
+        private boolean enabled = true;
+
+        private long maximumSize = 10000;
+
+        private long ttlInSeconds = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
         public long getTtlInSeconds() {
             return ttlInSeconds;
         }
@@ -197,11 +545,143 @@ public class IxorTalkConfigProperties {
         }
     }
 
+    public static class SignedTokens {
+
+        private boolean enabled = false;
+
+        private String keyStore;
+
+        private String keyStorePassword;
+
+        private String keyAlias;
+
+        private long revocationRefreshIntervalInMillis = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getKeyStore() {
+            return keyStore;
+        }
+
+        public void setKeyStore(String keyStore) {
+            this.keyStore = keyStore;
+        }
+
+        public String getKeyStorePassword() {
+            return keyStorePassword;
+        }
+
+        public void setKeyStorePassword(String keyStorePassword) {
+            this.keyStorePassword = keyStorePassword;
+        }
+
+        public String getKeyAlias() {
+            return keyAlias;
+        }
+
+        public void setKeyAlias(String keyAlias) {
+            this.keyAlias = keyAlias;
+        }
+
+        public long getRevocationRefreshIntervalInMillis() {
+            return revocationRefreshIntervalInMillis;
+        }
+
+        public void setRevocationRefreshIntervalInMillis(long revocationRefreshIntervalInMillis) {
+            this.revocationRefreshIntervalInMillis = revocationRefreshIntervalInMillis;
+        }
+    }
+
+    public static class TokenPurge {
+
+        private boolean enabled = true;
+
+        private long intervalInMillis = 300000;
+
+        private int batchSize = 500;
+
+        private int maxBatchesPerRun = 20;
+
+        private long pauseBetweenBatchesInMillis = 100;
+
+        private String lockClause = "for update skip locked";
+
+        private long thirdPartyRefreshableRetentionInSeconds = 2592000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getIntervalInMillis() {
+            return intervalInMillis;
+        }
+
+        public void setIntervalInMillis(long intervalInMillis) {
+            this.intervalInMillis = intervalInMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxBatchesPerRun() {
+            return maxBatchesPerRun;
+        }
+
+        public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+            this.maxBatchesPerRun = maxBatchesPerRun;
+        }
+
+        public long getPauseBetweenBatchesInMillis() {
+            return pauseBetweenBatchesInMillis;
+        }
+
+        public void setPauseBetweenBatchesInMillis(long pauseBetweenBatchesInMillis) {
+            this.pauseBetweenBatchesInMillis = pauseBetweenBatchesInMillis;
+        }
+
+        public String getLockClause() {
+            return lockClause;
+        }
+
+        public void setLockClause(String lockClause) {
+            this.lockClause = lockClause;
+        }
+
+        public long getThirdPartyRefreshableRetentionInSeconds() {
+            return thirdPartyRefreshableRetentionInSeconds;
+        }
+
+        public void setThirdPartyRefreshableRetentionInSeconds(long thirdPartyRefreshableRetentionInSeconds) {
+            this.thirdPartyRefreshableRetentionInSeconds = thirdPartyRefreshableRetentionInSeconds;
+        }
+    }
+
+    public enum TokenCodecType {
+        JAVA, BINARY
+    }
+
     public static class ThirdPartyLogin {
 
         private String loginPath;
         private ClientResources clientResource;
         private LoginProvider principalExtractorType = IXORTALK;
+        private HttpClient httpClient = new HttpClient();
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
 
         public String getLoginPath() {
             return loginPath;
@@ -226,6 +706,130 @@ public class IxorTalkConfigProperties {
         public void setPrincipalExtractorType(LoginProvider principalExtractorType) {
             this.principalExtractorType = principalExtractorType;
         }
+
+        public HttpClient getHttpClient() {
+            return httpClient;
+        }
+
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        private int failureThreshold = 5;
+
+        private long openDurationInMillis = 30000;
+
+        private int maxConcurrentCalls = 20;
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public long getOpenDurationInMillis() {
+            return openDurationInMillis;
+        }
+
+        public void setOpenDurationInMillis(long openDurationInMillis) {
+            this.openDurationInMillis = openDurationInMillis;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+    }
+
+    public static class HttpClient {
+
+        private int maxConnections = 50;
+
+        private int maxConnectionsPerRoute = 20;
+
+        private int connectTimeoutInMillis = 2000;
+
+        private int readTimeoutInMillis = 5000;
+
+        private int connectionRequestTimeoutInMillis = 1000;
+
+        private long idleTimeoutInSeconds = 30;
+
+        private int validateAfterInactivityInMillis = 1000;
+
+        private int warmUpConnections = 0;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public int getConnectTimeoutInMillis() {
+            return connectTimeoutInMillis;
+        }
+
+        public void setConnectTimeoutInMillis(int connectTimeoutInMillis) {
+            this.connectTimeoutInMillis = connectTimeoutInMillis;
+        }
+
+        public int getReadTimeoutInMillis() {
+            return readTimeoutInMillis;
+        }
+
+        public void setReadTimeoutInMillis(int readTimeoutInMillis) {
+            this.readTimeoutInMillis = readTimeoutInMillis;
+        }
+
+        public int getConnectionRequestTimeoutInMillis() {
+            return connectionRequestTimeoutInMillis;
+        }
+
+        public void setConnectionRequestTimeoutInMillis(int connectionRequestTimeoutInMillis) {
+            this.connectionRequestTimeoutInMillis = connectionRequestTimeoutInMillis;
+        }
+
+        public long getIdleTimeoutInSeconds() {
+            return idleTimeoutInSeconds;
+        }
+
+        public void setIdleTimeoutInSeconds(long idleTimeoutInSeconds) {
+            this.idleTimeoutInSeconds = idleTimeoutInSeconds;
+        }
+
+        public int getValidateAfterInactivityInMillis() {
+            return validateAfterInactivityInMillis;
+        }
+
+        public void setValidateAfterInactivityInMillis(int validateAfterInactivityInMillis) {
+            this.validateAfterInactivityInMillis = validateAfterInactivityInMillis;
+        }
+
+        public int getWarmUpConnections() {
+            return warmUpConnections;
+        }
+
+        public void setWarmUpConnections(int warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+        }
     }
 
     public static class ClientResources {
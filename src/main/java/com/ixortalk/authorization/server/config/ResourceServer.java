@@ -23,15 +23,44 @@
  */
 package com.ixortalk.authorization.server.config;
 
+import com.ixortalk.authorization.server.security.signedtoken.SignedAccessTokenConverter;
+import com.ixortalk.authorization.server.security.signedtoken.SignedTokenServices;
+import com.ixortalk.authorization.server.security.signedtoken.TokenRevocationList;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
+import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import javax.inject.Inject;
+import java.util.Optional;
 
 @Configuration
 @EnableResourceServer
 public class ResourceServer extends ResourceServerConfigurerAdapter {
 
+    @Inject
+    private Optional<SignedAccessTokenConverter> signedAccessTokenConverter;
+
+    @Inject
+    private Optional<TokenRevocationList> tokenRevocationList;
+
+    @Inject
+    private TokenStore tokenStore;
+
+    @Override
+    public void configure(ResourceServerSecurityConfigurer resources) {
+        signedAccessTokenConverter.ifPresent(converter -> resources.tokenServices(new SignedTokenServices(converter, tokenRevocationList.get(), opaqueTokenServices())));
+    }
+
+    private DefaultTokenServices opaqueTokenServices() {
+        DefaultTokenServices opaqueTokenServices = new DefaultTokenServices();
+        opaqueTokenServices.setTokenStore(tokenStore);
+        return opaqueTokenServices;
+    }
+
     @Override
     public void configure(HttpSecurity http) throws Exception {
         http
@@ -0,0 +1,94 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.config;
+
+import com.ixortalk.authorization.server.security.signedtoken.SignedAccessTokenConverter;
+import com.ixortalk.authorization.server.security.signedtoken.TokenRevocationList;
+import com.ixortalk.authorization.server.security.signedtoken.TokenRevocationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+
+import static java.util.stream.Collectors.toList;
+
+@Configuration
+@ConditionalOnProperty(name = "ixortalk.security.signed-tokens.enabled", havingValue = "true")
+public class SignedTokenConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignedTokenConfiguration.class);
+
+    @Inject
+    private IxorTalkConfigProperties ixorTalkConfigProperties;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Bean
+    public KeyPair signedTokenKeyPair() throws NoSuchAlgorithmException {
+        IxorTalkConfigProperties.SignedTokens signedTokens = ixorTalkConfigProperties.getSecurity().getSignedTokens();
+        if (signedTokens.getKeyStore() == null) {
+            LOGGER.warn("No key store configured for signed tokens, generating a key pair: tokens will not validate across restarts or instances");
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+            keyPairGenerator.initialize(2048);
+            return keyPairGenerator.generateKeyPair();
+        }
+        return new KeyStoreKeyFactory(new DefaultResourceLoader().getResource(signedTokens.getKeyStore()), signedTokens.getKeyStorePassword().toCharArray())
+                .getKeyPair(signedTokens.getKeyAlias());
+    }
+
+    @Bean
+    public SignedAccessTokenConverter signedAccessTokenConverter() throws NoSuchAlgorithmException {
+        SignedAccessTokenConverter signedAccessTokenConverter = new SignedAccessTokenConverter();
+        signedAccessTokenConverter.setKeyPair(signedTokenKeyPair());
+        return signedAccessTokenConverter;
+    }
+
+    @Bean
+    public TokenRevocationList tokenRevocationList() {
+        return new TokenRevocationList(dataSource);
+    }
+
+    @Bean
+    public TokenRevocationService tokenRevocationService(TokenStore tokenStore) {
+        return new TokenRevocationService(
+                tokenStore,
+                tokenRevocationList(),
+                ixorTalkConfigProperties.getSecurity().getAuthentication().getOauthClients()
+                        .values()
+                        .stream()
+                        .map(IxorTalkConfigProperties.Security.Authentication.Oauth::getClientid)
+                        .collect(toList()));
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.config;
+
+import com.ixortalk.authorization.server.security.tokenstore.CodecJdbcTokenStore;
+import com.ixortalk.authorization.server.security.tokenstore.TokenPurger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import static com.ixortalk.authorization.server.security.tokenstore.DelegatingTokenStore.unwrap;
+
+@Configuration
+@ConditionalOnProperty(name = "ixortalk.security.token-purge.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenPurgeConfiguration {
+
+    @Inject
+    private IxorTalkConfigProperties ixorTalkConfigProperties;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private TokenStore tokenStore;
+
+    @Inject
+    private TokenStore thirdPartyTokenStore;
+
+    @Bean
+    public TokenPurger tokenPurger() {
+        IxorTalkConfigProperties.TokenPurge tokenPurge = ixorTalkConfigProperties.getSecurity().getTokenPurge();
+        return new TokenPurger(dataSource, transactionManager, tokenPurge.getBatchSize(), tokenPurge.getMaxBatchesPerRun(), tokenPurge.getPauseBetweenBatchesInMillis(), tokenPurge.getLockClause())
+                .purge("oauth_access_token", "oauth_refresh_token", (CodecJdbcTokenStore) unwrap(tokenStore))
+                .purge("third_pty_oauth_access_token", "third_pty_oauth_refresh_token", (CodecJdbcTokenStore) unwrap(thirdPartyTokenStore));
+    }
+}
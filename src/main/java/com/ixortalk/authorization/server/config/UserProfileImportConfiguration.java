@@ -0,0 +1,63 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.config;
+
+import com.ixortalk.authorization.server.bulk.PooledSequenceIdAllocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import static com.ixortalk.authorization.server.domain.UserProfile.ID_ALLOCATION_SIZE;
+import static com.ixortalk.authorization.server.domain.UserProfile.ID_SEQUENCE;
+
+@Configuration
+public class UserProfileImportConfiguration {
+
+    @Inject
+    private DataSource dataSource;
+
+    @Bean
+    public PooledSequenceIdAllocator userProfileIdAllocator() throws MetaDataAccessException {
+        return new PooledSequenceIdAllocator(userProfileIdIncrementer(), ID_ALLOCATION_SIZE);
+    }
+
+    private DataFieldMaxValueIncrementer userProfileIdIncrementer() throws MetaDataAccessException {
+        String databaseProductName = JdbcUtils.commonDatabaseName((String) JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName"));
+        switch (databaseProductName) {
+            case "PostgreSQL":
+                return new PostgresSequenceMaxValueIncrementer(dataSource, ID_SEQUENCE);
+            case "H2":
+                return new H2SequenceMaxValueIncrementer(dataSource, ID_SEQUENCE);
+            default:
+                throw new IllegalStateException("No sequence incrementer for " + databaseProductName);
+        }
+    }
+}
@@ -24,25 +24,37 @@
 package com.ixortalk.authorization.server.config;
 
 import com.ixortalk.authorization.server.domain.LoginProvider;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import com.ixortalk.authorization.server.rest.EndpointMetricsFilter;
+import com.ixortalk.authorization.server.rest.UserProfileRestResource;
 import com.ixortalk.authorization.server.security.AuthenticationSuccessEventListener;
-import com.ixortalk.authorization.server.security.IxorTalkPrincipal;
+import com.ixortalk.authorization.server.security.ProfilePictureResolvedEventListener;
+import com.ixortalk.authorization.server.security.thirdparty.CachingProfilePictureResolver;
+import com.ixortalk.authorization.server.security.thirdparty.LoginProviderPrincipalExtractor;
+import com.ixortalk.authorization.server.security.thirdparty.ProfilePictureResolver;
+import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCircuitBreaker;
+import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyClient;
 import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyLoginProvider;
 import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyLoginProviders;
+import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyOAuth2ClientContexts;
+import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyUserInfoTokenServices;
 import com.ixortalk.authorization.server.security.UrlLogoutSuccessHandler;
-import org.springframework.boot.autoconfigure.security.oauth2.resource.PrincipalExtractor;
+import com.ixortalk.authorization.server.security.signedtoken.TokenRevocationService;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.UserInfoTokenServices;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
 import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.oauth2.client.OAuth2ClientContext;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 import org.springframework.security.oauth2.client.filter.OAuth2ClientAuthenticationProcessingFilter;
 import org.springframework.security.oauth2.client.filter.OAuth2ClientContextFilter;
+import org.springframework.security.oauth2.client.token.AccessTokenRequest;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableOAuth2Client;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
@@ -54,9 +66,15 @@ import org.springframework.web.filter.CompositeFilter;
 import org.springframework.web.filter.ForwardedHeaderFilter;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.Optional;
 
+import static com.ixortalk.authorization.server.security.thirdparty.ThirdPartyOAuth2ClientContexts.forProvider;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 import static org.springframework.boot.autoconfigure.security.SecurityProperties.ACCESS_OVERRIDE_ORDER;
+import static org.springframework.context.annotation.ScopedProxyMode.TARGET_CLASS;
 import static org.springframework.core.Ordered.HIGHEST_PRECEDENCE;
 
 @Configuration
@@ -69,16 +87,23 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
     private IxorTalkConfigProperties ixorTalkConfigProperties;
 
     @Inject
-    private OAuth2ClientContext oAuth2ClientContext;
+    @Named("accessTokenRequest")
+    private AccessTokenRequest accessTokenRequest;
 
     @Inject
     private ApplicationEventPublisher applicationEventPublisher;
 
+    @Inject
+    private Optional<TokenRevocationService> tokenRevocationService;
+
+    @Inject
+    private UserProfileRestResource userProfileRestResource;
+
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http
                 .antMatcher("/**").authorizeRequests()
-                .antMatchers("/login", "/actuator/**", "/error", "/retry-login").permitAll()
+                .antMatchers("/login", "/actuator/**", "/error", "/retry-login", "/oauth/jwks").permitAll()
                 .anyRequest().authenticated()
                 .and()
                     .exceptionHandling().authenticationEntryPoint(new LoginUrlAuthenticationEntryPoint(ixorTalkConfigProperties.getSecurity().getLoginUrl()))
@@ -89,6 +114,9 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
                 .and()
                     .addFilterBefore(createCompositeSSOFilter(thirdPartyLoginProviders()), BasicAuthenticationFilter.class)
                 .requestCache().requestCache(requestCache());
+        if (tokenRevocationService.isPresent()) {
+            http.logout().addLogoutHandler(tokenRevocationService.get());
+        }
     }
 
     @Bean
@@ -101,18 +129,38 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
         return new ThirdPartyLoginProviders(
                 ixorTalkConfigProperties
                         .getThirdPartyLogins()
-                        .values()
+                        .entrySet()
                         .stream()
-                        .map(thirdPartyLogin -> new ThirdPartyLoginProvider(
-                                thirdPartyLogin.getClientResource().getClient(),
-                                thirdPartyLogin.getPrincipalExtractorType(),
-                                thirdPartyLogin.getLoginPath(),
-                                new OAuth2RestTemplate(thirdPartyLogin.getClientResource().getClient(), oAuth2ClientContext),
-                                createTokenServices(
-                                        thirdPartyLogin.getPrincipalExtractorType(),
-                                        thirdPartyLogin.getClientResource(),
-                                        new OAuth2RestTemplate(thirdPartyLogin.getClientResource().getClient(), oAuth2ClientContext))
-                        ))
+                        .map(thirdPartyLoginEntry -> {
+                            String name = thirdPartyLoginEntry.getKey();
+                            IxorTalkConfigProperties.ThirdPartyLogin thirdPartyLogin = thirdPartyLoginEntry.getValue();
+                            ThirdPartyClient client =
+                                    new ThirdPartyClient(
+                                            name,
+                                            thirdPartyLogin.getHttpClient(),
+                                            thirdPartyLogin.getClientResource().getClient(),
+                                            thirdPartyLogin.getClientResource().getResource().getUserInfoUri(),
+                                            forProvider(thirdPartyOAuth2ClientContexts(), name));
+                            return new ThirdPartyLoginProvider(
+                                    name,
+                                    thirdPartyLogin.getClientResource().getClient(),
+                                    thirdPartyLogin.getPrincipalExtractorType(),
+                                    thirdPartyLogin.getLoginPath(),
+                                    client,
+                                    createTokenServices(
+                                            thirdPartyLogin.getPrincipalExtractorType(),
+                                            thirdPartyLogin.getClientResource(),
+                                            client.getOAuth2RestTemplate(),
+                                            new CachingProfilePictureResolver(
+                                                    name,
+                                                    client.getOAuth2RestTemplate(),
+                                                    client.getRestTemplate(),
+                                                    profilePictureExecutor(),
+                                                    applicationEventPublisher,
+                                                    principalName -> userProfileRestResource.findByEmail(principalName).map(UserProfile::getProfilePictureUrl).orElse(null),
+                                                    ixorTalkConfigProperties.getSecurity().getProfilePictureCache())),
+                                    new ThirdPartyCircuitBreaker(name, thirdPartyLogin.getCircuitBreaker()));
+                        })
                         .collect(toList())
         );
     }
@@ -142,24 +190,30 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
         return compositeFilter;
     }
 
-    private UserInfoTokenServices createTokenServices(LoginProvider principalExtractorType, IxorTalkConfigProperties.ClientResources client, OAuth2RestTemplate oAuth2RestTemplate) {
-        UserInfoTokenServices tokenServices = new UserInfoTokenServices(
+    private UserInfoTokenServices createTokenServices(LoginProvider principalExtractorType, IxorTalkConfigProperties.ClientResources client, OAuth2RestTemplate oAuth2RestTemplate, ProfilePictureResolver profilePictureResolver) {
+        UserInfoTokenServices tokenServices = new ThirdPartyUserInfoTokenServices(
                 client.getResource().getUserInfoUri(),
-                client.getClient().getClientId());
-        tokenServices.setRestTemplate(oAuth2RestTemplate);
-        tokenServices.setPrincipalExtractor(createPrincipalExtractor(principalExtractorType, oAuth2RestTemplate));
+                client.getClient().getClientId(),
+                oAuth2RestTemplate);
+        tokenServices.setPrincipalExtractor(new LoginProviderPrincipalExtractor(principalExtractorType, profilePictureResolver));
         return tokenServices;
     }
 
-    private PrincipalExtractor createPrincipalExtractor(LoginProvider principalExtractorType, OAuth2RestTemplate userInfoProviderRestTemplate) {
-        return map -> new IxorTalkPrincipal(
-                principalExtractorType,
-                principalExtractorType.getPrincipalName(map),
-                principalExtractorType.getPrincipalName(map),
-                principalExtractorType.getFirstName(map),
-                principalExtractorType.getLastName(map),
-                principalExtractorType.getProfilePictureUrl(map, userInfoProviderRestTemplate),
-                principalExtractorType.getUserInfo(map));
+    @Bean
+    @Scope(value = "session", proxyMode = TARGET_CLASS)
+    public ThirdPartyOAuth2ClientContexts thirdPartyOAuth2ClientContexts() {
+        return new ThirdPartyOAuth2ClientContexts(accessTokenRequest);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor profilePictureExecutor() {
+        IxorTalkConfigProperties.ProfilePictureCache profilePictureCache = ixorTalkConfigProperties.getSecurity().getProfilePictureCache();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("profile-picture-");
+        executor.setCorePoolSize(profilePictureCache.getThreads());
+        executor.setMaxPoolSize(profilePictureCache.getThreads());
+        executor.setQueueCapacity(profilePictureCache.getQueueCapacity());
+        return executor;
     }
 
     @Bean
@@ -178,8 +232,31 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
         return filterRegistrationBean;
     }
 
+    @Bean
+    FilterRegistrationBean endpointMetricsFilter() {
+        FilterRegistrationBean filterRegistrationBean = new FilterRegistrationBean();
+        filterRegistrationBean.setFilter(
+                new EndpointMetricsFilter(
+                        ixorTalkConfigProperties.getSecurity().getAuthentication().getOauthClients()
+                                .values()
+                                .stream()
+                                .map(IxorTalkConfigProperties.Security.Authentication.Oauth::getClientid)
+                                .collect(toSet()),
+                        thirdPartyLoginProviders()
+                                .getLoginProviders()
+                                .stream()
+                                .collect(toMap(ThirdPartyLoginProvider::getLoginPath, thirdPartyLoginProvider -> thirdPartyLoginProvider.getResource().getClientId()))));
+        filterRegistrationBean.setOrder(HIGHEST_PRECEDENCE + 1);
+        return filterRegistrationBean;
+    }
+
     @Bean
     public AuthenticationSuccessEventListener authenticationSuccessEventListener() {
         return new AuthenticationSuccessEventListener();
     }
+
+    @Bean
+    public ProfilePictureResolvedEventListener profilePictureResolvedEventListener() {
+        return new ProfilePictureResolvedEventListener();
+    }
 }
@@ -37,7 +37,7 @@ public class Authority implements Serializable {
 
     private Authority() {}
 
-    private Authority(String authority) {
+    Authority(String authority) {
         this.authority = authority;
     }
 
@@ -46,7 +46,7 @@ public class Authority implements Serializable {
     }
 
     public static Authority authority(String authority) {
-        return new Authority(authority);
+        return AuthorityRegistry.authority(authority);
     }
 
     @Override
@@ -0,0 +1,104 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Canonical {@link Authority} and {@link GrantedAuthority} instances for the (small) authority vocabulary.
+ * Registration stops at {@link #MAXIMUM_SIZE} entries; unregistered authorities get fresh instances.
+ */
+public final class AuthorityRegistry {
+
+    static final int MAXIMUM_SIZE = 1024;
+
+    static final int UNREGISTERED = -1;
+
+    private static final ConcurrentMap<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<Entry> BY_INDEX = new AtomicReferenceArray<>(MAXIMUM_SIZE);
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    private AuthorityRegistry() {}
+
+    public static Authority authority(String authority) {
+        Entry entry = entry(authority);
+        return entry == null ? new Authority(authority) : entry.authority;
+    }
+
+    public static GrantedAuthority grantedAuthority(String authority) {
+        Entry entry = entry(authority);
+        return entry == null ? new SimpleGrantedAuthority(authority) : entry.grantedAuthority;
+    }
+
+    static int indexOf(String authority) {
+        Entry entry = entry(authority);
+        return entry == null ? UNREGISTERED : entry.index;
+    }
+
+    static Authority authorityAt(int index) {
+        return BY_INDEX.get(index).authority;
+    }
+
+    static GrantedAuthority grantedAuthorityAt(int index) {
+        return BY_INDEX.get(index).grantedAuthority;
+    }
+
+    private static Entry entry(String authority) {
+        if (authority == null) {
+            return null;
+        }
+        Entry entry = ENTRIES.get(authority);
+        if (entry != null || ENTRIES.size() >= MAXIMUM_SIZE) {
+            return entry;
+        }
+        return ENTRIES.computeIfAbsent(authority, key -> {
+            int index = NEXT_INDEX.getAndIncrement();
+            if (index >= MAXIMUM_SIZE) {
+                return null;
+            }
+            Entry created = new Entry(index, key);
+            BY_INDEX.set(index, created);
+            return created;
+        });
+    }
+
+    private static class Entry {
+
+        private final int index;
+        private final Authority authority;
+        private final GrantedAuthority grantedAuthority;
+
+        private Entry(int index, String authority) {
+            this.index = index;
+            this.authority = new Authority(authority);
+            this.grantedAuthority = new SimpleGrantedAuthority(authority);
+        }
+    }
+}
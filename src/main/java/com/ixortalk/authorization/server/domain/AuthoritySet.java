@@ -0,0 +1,130 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
+import static com.ixortalk.authorization.server.domain.AuthorityRegistry.UNREGISTERED;
+import static com.ixortalk.authorization.server.domain.AuthorityRegistry.authorityAt;
+import static com.ixortalk.authorization.server.domain.AuthorityRegistry.grantedAuthorityAt;
+import static com.ixortalk.authorization.server.domain.AuthorityRegistry.indexOf;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Immutable set of authorities, stored as a bitset over the {@link AuthorityRegistry} indexes.
+ */
+public final class AuthoritySet {
+
+    private final BitSet registered;
+    private final Set<String> unregistered;
+
+    private volatile Set<GrantedAuthority> grantedAuthorities;
+
+    private AuthoritySet(BitSet registered, Set<String> unregistered) {
+        this.registered = registered;
+        this.unregistered = unregistered;
+    }
+
+    public static AuthoritySet ofAuthorities(Collection<Authority> authorities) {
+        return of(authorities, Authority::getAuthority);
+    }
+
+    public static AuthoritySet ofGrantedAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        return of(authorities, GrantedAuthority::getAuthority);
+    }
+
+    private static <T> AuthoritySet of(Collection<T> authorities, Function<T, String> name) {
+        BitSet registered = new BitSet();
+        Set<String> unregistered = emptySet();
+        for (T authority : authorities) {
+            String authorityName = name.apply(authority);
+            if (authorityName == null) {
+                continue;
+            }
+            int index = indexOf(authorityName);
+            if (index != UNREGISTERED) {
+                registered.set(index);
+                continue;
+            }
+            if (unregistered.isEmpty()) {
+                unregistered = newHashSet();
+            }
+            unregistered.add(authorityName);
+        }
+        return new AuthoritySet(registered, unregistered);
+    }
+
+    public boolean contains(String authority) {
+        int index = indexOf(authority);
+        return index == UNREGISTERED ? unregistered.contains(authority) : registered.get(index);
+    }
+
+    public int size() {
+        return registered.cardinality() + unregistered.size();
+    }
+
+    public Set<Authority> toAuthorities() {
+        Set<Authority> authorities = newHashSetWithExpectedSize(size());
+        registered.stream().forEach(index -> authorities.add(authorityAt(index)));
+        unregistered.forEach(authority -> authorities.add(new Authority(authority)));
+        return authorities;
+    }
+
+    public Set<GrantedAuthority> getGrantedAuthorities() {
+        if (grantedAuthorities == null) {
+            Set<GrantedAuthority> granted = newHashSetWithExpectedSize(size());
+            registered.stream().forEach(index -> granted.add(grantedAuthorityAt(index)));
+            unregistered.forEach(authority -> granted.add(AuthorityRegistry.grantedAuthority(authority)));
+            grantedAuthorities = unmodifiableSet(granted);
+        }
+        return grantedAuthorities;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AuthoritySet that = (AuthoritySet) o;
+        return registered.equals(that.registered) && unregistered.equals(that.unregistered);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(registered, unregistered);
+    }
+
+    @Override
+    public String toString() {
+        return getGrantedAuthorities().toString();
+    }
+}
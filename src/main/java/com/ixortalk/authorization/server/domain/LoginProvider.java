@@ -23,11 +23,7 @@
  */
 package com.ixortalk.authorization.server.domain;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.client.OAuth2RestTemplate;
+import com.ixortalk.authorization.server.security.thirdparty.ProfilePictureResolver;
 
 import java.util.List;
 import java.util.Map;
@@ -51,7 +47,7 @@ public enum LoginProvider {
         }
 
         @Override
-        public String getProfilePictureUrl(Map<String, Object> map, OAuth2RestTemplate userInfoProviderRestTemplate) {
+        public String getProfilePictureUrl(Map<String, Object> map, ProfilePictureResolver profilePictureResolver) {
             return getUserInfoField(map, "profilePictureUrl");
         }
 
@@ -84,18 +80,12 @@ public enum LoginProvider {
         }
 
         @Override
-        public String getProfilePictureUrl(Map<String, Object> map, OAuth2RestTemplate userInfoProviderRestTemplate) {
-            // TODO : Proper profile picture handing: https://github.com/IxorTalk/ixortalk-authorization-server/issues/6
-            try {
-                Object imageId = map.get("image_id");
-                if (imageId != null) {
-                    ResponseEntity<JsonNode> profilePictureResponse = userInfoProviderRestTemplate.getForEntity("https://www.eventbriteapi.com/v3/media/" + imageId, JsonNode.class);
-                    return profilePictureResponse.getBody().get("url").textValue();
-                }
-            } catch (Exception e) {
-                LOGGER.warn("Error retrieving profile pic from Eventbrite: " + e.getMessage(), e);
+        public String getProfilePictureUrl(Map<String, Object> map, ProfilePictureResolver profilePictureResolver) {
+            Object imageId = map.get("image_id");
+            if (imageId == null) {
+                return null;
             }
-            return null;
+            return profilePictureResolver.resolve(getPrincipalName(map), "https://www.eventbriteapi.com/v3/media/" + imageId);
         }
 
         @Override
@@ -121,7 +111,7 @@ public enum LoginProvider {
         }
 
         @Override
-        public String getProfilePictureUrl(Map<String, Object> map, OAuth2RestTemplate userInfoProviderRestTemplate) {
+        public String getProfilePictureUrl(Map<String, Object> map, ProfilePictureResolver profilePictureResolver) {
             return (String) map.get("image_url");
         }
 
@@ -131,15 +121,13 @@ public enum LoginProvider {
         }
     };
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(LoginProvider.class);
-
     public abstract String getPrincipalName(Map<String, Object> map);
 
     public abstract String getFirstName(Map<String, Object> map);
 
     public abstract String getLastName(Map<String, Object> map);
 
-    public abstract String getProfilePictureUrl(Map<String, Object> map, OAuth2RestTemplate userInfoProviderRestTemplate);
+    public abstract String getProfilePictureUrl(Map<String, Object> map, ProfilePictureResolver profilePictureResolver);
 
     public abstract Object getUserInfo(Map<String, Object> map);
 
@@ -23,6 +23,15 @@
  */
 package com.ixortalk.authorization.server.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -32,22 +41,40 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import java.io.Serializable;
+import java.util.Objects;
 import java.util.Set;
 
 import static com.google.common.collect.Sets.newHashSet;
 import static javax.persistence.EnumType.STRING;
 import static javax.persistence.FetchType.EAGER;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.NONSTRICT_READ_WRITE;
 
 @Entity
+@DynamicUpdate
+@Cache(usage = NONSTRICT_READ_WRITE)
+@NaturalIdCache
 public class UserProfile implements Serializable {
 
+    public static final String ID_SEQUENCE = "hibernate_sequence";
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final int AUTHORITIES_BATCH_SIZE = 100;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "user_profile_id")
+    @GenericGenerator(
+            name = "user_profile_id",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = ID_SEQUENCE),
+                    @Parameter(name = "increment_size", value = "" + ID_ALLOCATION_SIZE),
+                    @Parameter(name = "optimizer", value = "pooled")
+            })
     private Long id;
 
     @Column(unique = true)
     private String name;
 
+    @NaturalId(mutable = true)
     @Column
     private String email;
 
@@ -61,6 +88,8 @@ public class UserProfile implements Serializable {
     private String profilePictureUrl;
 
     @ElementCollection(fetch = EAGER)
+    @BatchSize(size = AUTHORITIES_BATCH_SIZE)
+    @Cache(usage = NONSTRICT_READ_WRITE)
     @CollectionTable(name = "authorities", joinColumns = @JoinColumn(name = "user_profile_id"))
     private Set<Authority> authorities = newHashSet();
 
@@ -100,11 +129,42 @@ public class UserProfile implements Serializable {
         this.firstName = firstName;
         this.lastName = lastName;
         this.profilePictureUrl = profilePictureUrl;
-        this.authorities = authorities;
+        if (!hasAuthorities(authorities)) {
+            this.authorities = authorities;
+        }
         this.loginProvider = loginProvider;
         return this;
     }
 
+    public UserProfile updateProfilePictureUrl(String profilePictureUrl) {
+        this.profilePictureUrl = profilePictureUrl;
+        return this;
+    }
+
+    public boolean hasDetails(
+            String name,
+            String email,
+            String firstName,
+            String lastName,
+            String profilePictureUrl,
+            LoginProvider loginProvider) {
+        return Objects.equals(this.name, name)
+                && Objects.equals(this.email, email)
+                && Objects.equals(this.firstName, firstName)
+                && Objects.equals(this.lastName, lastName)
+                && Objects.equals(this.profilePictureUrl, profilePictureUrl)
+                && this.loginProvider == loginProvider;
+    }
+
+    public boolean hasAuthorities(Set<Authority> authorities) {
+        return this.authorities.equals(authorities);
+    }
+
+    @JsonIgnore
+    public Long getId() {
+        return id;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.google.common.collect.ImmutableSet;
+import io.prometheus.client.Histogram;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+public class EndpointMetricsFilter extends OncePerRequestFilter {
+
+    private static final Histogram REQUEST_DURATION =
+            Histogram.build()
+                    .name("http_endpoint_request_duration_seconds")
+                    .help("Duration of token, check token, user info and third party login callback requests, by endpoint, grant type, client id and outcome.")
+                    .labelNames("endpoint", "grant_type", "client_id", "outcome")
+                    .register();
+
+    private static final Set<String> ENDPOINTS = ImmutableSet.of("/oauth/token", "/oauth/check_token", "/user", "/user/evict");
+    private static final Set<String> GRANT_TYPES = ImmutableSet.of("authorization_code", "refresh_token", "client_credentials", "password", "implicit");
+
+    private static final String CLIENT_ID_ATTRIBUTE = EndpointMetricsFilter.class.getName() + ".CLIENT_ID";
+    private static final String BASIC = "Basic ";
+    private static final String NONE = "none";
+    private static final String UNKNOWN = "unknown";
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private final Set<String> clientIds;
+    private final Map<String, String> loginCallbackClientIds;
+
+    public EndpointMetricsFilter(Set<String> clientIds, Map<String, String> loginCallbackClientIds) {
+        this.clientIds = clientIds;
+        this.loginCallbackClientIds = loginCallbackClientIds;
+    }
+
+    public static void clientId(ServletRequest request, String clientId) {
+        request.setAttribute(CLIENT_ID_ATTRIBUTE, clientId);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String endpoint = urlPathHelper.getPathWithinApplication(request);
+        boolean loginCallback = loginCallbackClientIds.containsKey(endpoint) && (request.getParameter("code") != null || request.getParameter("error") != null);
+        if (!loginCallback && !ENDPOINTS.contains(endpoint)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = nanoTime();
+        String outcome = "server_error";
+        try {
+            filterChain.doFilter(request, response);
+            outcome = outcome(response.getStatus());
+        } finally {
+            REQUEST_DURATION
+                    .labels(endpoint, grantType(request), loginCallback ? loginCallbackClientIds.get(endpoint) : clientId(request), outcome)
+                    .observe((nanoTime() - start) / (double) SECONDS.toNanos(1));
+        }
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String clientId = (String) request.getAttribute(CLIENT_ID_ATTRIBUTE);
+        if (clientId == null) {
+            clientId = basicAuthenticationClientId(request.getHeader(AUTHORIZATION));
+        }
+        if (clientId == null) {
+            clientId = request.getParameter("client_id");
+        }
+        if (clientId == null) {
+            return NONE;
+        }
+        return clientIds.contains(clientId) ? clientId : UNKNOWN;
+    }
+
+    private static String basicAuthenticationClientId(String authorization) {
+        if (authorization == null || !authorization.startsWith(BASIC)) {
+            return null;
+        }
+        try {
+            String credentials = new String(Base64.getDecoder().decode(authorization.substring(BASIC.length()).trim()), UTF_8);
+            int separator = credentials.indexOf(':');
+            return separator < 0 ? null : credentials.substring(0, separator);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String grantType(HttpServletRequest request) {
+        String grantType = request.getParameter("grant_type");
+        if (grantType == null) {
+            return NONE;
+        }
+        return GRANT_TYPES.contains(grantType) ? grantType : UNKNOWN;
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "server_error";
+        }
+        return status >= 400 ? "client_error" : "success";
+    }
+}
@@ -23,65 +23,55 @@
  */
 package com.ixortalk.authorization.server.rest;
 
-import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyProfileService;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
-import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.security.Principal;
 
-import static org.springframework.http.ResponseEntity.ok;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
 
 @RestController
 @RequestMapping("/user")
 public class UserInfoController {
 
-    public static final String USER_INFO_CACHE_NAME = "userInfoCache";
-
-    @Inject
-    private UserProfileRestResource userProfileRestResource;
-
     @Inject
-    private ThirdPartyProfileService thirdPartyProfileService;
+    private UserInfoService userInfoService;
 
     @GetMapping
-    @Cacheable(cacheNames = USER_INFO_CACHE_NAME, sync = true, key = "#principal.name")
-    public Object user(Principal principal) {
-        if (thirdPartyOAuth2Authentication(principal)) {
-            thirdPartyProfileService.refreshThirdPartyPrincipal((OAuth2Authentication) principal);
+    public void user(Principal principal, ServletWebRequest request, HttpServletResponse response) throws IOException {
+        tagClientId(principal, request);
+        SerializedUserInfo userInfo = userInfoService.userInfo(principal);
+        if (request.checkNotModified(userInfo.getETag())) {
+            return;
         }
-
-        return userProfileRestResource.findByEmail(principal.getName())
-                .<ResponseEntity<?>>map(ResponseEntity::ok)
-                .orElse(ok(principal));
+        write(userInfo, response);
     }
 
     @PostMapping("/evict")
-    @CacheEvict(cacheNames = USER_INFO_CACHE_NAME, key = "#principal.name")
-    public Object evict(Principal principal) {
-        return user(principal);
+    public void evict(Principal principal, ServletWebRequest request, HttpServletResponse response) throws IOException {
+        tagClientId(principal, request);
+        userInfoService.evict(principal);
+        write(userInfoService.userInfo(principal), response);
     }
 
-    private boolean thirdPartyOAuth2Authentication(Principal principal) {
-        if (!(principal instanceof OAuth2Authentication)) {
-            return false;
+    private static void tagClientId(Principal principal, ServletWebRequest request) {
+        if (principal instanceof OAuth2Authentication) {
+            EndpointMetricsFilter.clientId(request.getRequest(), ((OAuth2Authentication) principal).getOAuth2Request().getClientId());
         }
-        return thirdPartyAuthentication((OAuth2Authentication) principal) || refreshedAuthentication((OAuth2Authentication) principal);
     }
 
-    private boolean refreshedAuthentication(OAuth2Authentication principal) {
-        return principal.getUserAuthentication() instanceof PreAuthenticatedAuthenticationToken;
-    }
-
-    private boolean thirdPartyAuthentication(OAuth2Authentication principal) {
-        return principal.getUserAuthentication() instanceof OAuth2Authentication;
+    private static void write(SerializedUserInfo userInfo, HttpServletResponse response) throws IOException {
+        response.setHeader(ETAG, userInfo.getETag());
+        response.setContentType(APPLICATION_JSON_UTF8_VALUE);
+        response.setContentLength(userInfo.getJson().length);
+        response.getOutputStream().write(userInfo.getJson());
     }
 }
-
@@ -0,0 +1,75 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ixortalk.authorization.server.bulk.UserProfileExporter;
+import com.ixortalk.authorization.server.bulk.UserProfileRecord;
+import com.ixortalk.authorization.server.domain.LoginProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import static com.ixortalk.authorization.server.rest.UserProfileImportController.APPLICATION_NDJSON_VALUE;
+
+@RestController
+@RequestMapping("/user-profiles/export")
+public class UserProfileExportController {
+
+    @Inject
+    private UserProfileExporter userProfileExporter;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public void export(
+            @RequestParam(required = false) LoginProvider loginProvider,
+            @RequestParam(required = false) String authority,
+            HttpServletResponse response) throws IOException {
+        OutputStream outputStream = response.getOutputStream();
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        try {
+            userProfileExporter.exportUserProfiles(loginProvider, authority, record -> write(record, outputStream));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void write(UserProfileRecord record, OutputStream outputStream) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(record));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
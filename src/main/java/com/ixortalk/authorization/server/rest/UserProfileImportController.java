@@ -0,0 +1,82 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ixortalk.authorization.server.bulk.ImportResult;
+import com.ixortalk.authorization.server.bulk.UserProfileImporter;
+import com.ixortalk.authorization.server.bulk.UserProfileRecordReader;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/user-profiles/import")
+public class UserProfileImportController {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    @Inject
+    private UserProfileImporter userProfileImporter;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @PostMapping(consumes = APPLICATION_NDJSON_VALUE, produces = APPLICATION_NDJSON_VALUE)
+    public void importNdjson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        importUserProfiles(UserProfileRecordReader.ndjson(request.getInputStream(), objectMapper), response);
+    }
+
+    @PostMapping(consumes = TEXT_CSV_VALUE, produces = APPLICATION_NDJSON_VALUE)
+    public void importCsv(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        importUserProfiles(UserProfileRecordReader.csv(request.getInputStream()), response);
+    }
+
+    private void importUserProfiles(UserProfileRecordReader reader, HttpServletResponse response) throws IOException {
+        try (UserProfileRecordReader userProfileRecordReader = reader) {
+            OutputStream outputStream = response.getOutputStream();
+            response.setContentType(APPLICATION_NDJSON_VALUE);
+            userProfileImporter.importUserProfiles(userProfileRecordReader, result -> write(result, outputStream));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void write(ImportResult result, OutputStream outputStream) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(result));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.ixortalk.authorization.server.domain.UserProfile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.inject.Inject;
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.hateoas.Link.REL_NEXT;
+import static org.springframework.hateoas.Link.REL_SELF;
+import static org.springframework.web.servlet.support.ServletUriComponentsBuilder.fromCurrentRequest;
+
+@RepositoryRestController
+public class UserProfileKeysetController {
+
+    static final int DEFAULT_SIZE = 20;
+    static final int MAX_SIZE = 1000;
+
+    @Inject
+    private UserProfileRestResource userProfileRestResource;
+
+    @GetMapping("/user-profiles/after")
+    public ResponseEntity<Resources<?>> after(
+            @RequestParam(defaultValue = "0") long id,
+            @RequestParam(defaultValue = "" + DEFAULT_SIZE) int size,
+            PersistentEntityResourceAssembler assembler) {
+        Slice<UserProfile> slice = userProfileRestResource.findByIdGreaterThanOrderByIdAsc(id, new PageRequest(0, min(max(size, 1), MAX_SIZE)));
+
+        List<?> content = slice.getContent().stream().map(assembler::toFullResource).collect(toList());
+        Resources<?> resources = new Resources<>(content, new Link(fromCurrentRequest().toUriString(), REL_SELF));
+        if (slice.hasNext()) {
+            Long lastId = slice.getContent().get(slice.getNumberOfElements() - 1).getId();
+            resources.add(new Link(fromCurrentRequest().replaceQueryParam("id", lastId).toUriString(), REL_NEXT));
+        }
+        return ResponseEntity.ok(resources);
+    }
+}
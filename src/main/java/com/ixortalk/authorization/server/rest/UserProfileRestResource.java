@@ -24,8 +24,11 @@
 package com.ixortalk.authorization.server.rest;
 
 import com.ixortalk.authorization.server.domain.UserProfile;
-import org.springframework.data.repository.CrudRepository;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -33,10 +36,15 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import java.util.Optional;
 
 @RepositoryRestResource(path = "/user-profiles")
-public interface UserProfileRestResource extends CrudRepository<UserProfile, Long> {
+public interface UserProfileRestResource extends PagingAndSortingRepository<UserProfile, Long>, UserProfileNaturalIdLookup {
 
+    @Override
     @RestResource(exported = false)
-    Optional<UserProfile> findByEmail(@Param("email") String email);
+    Optional<UserProfile> findByEmail(String email);
+
+    @RestResource(exported = false)
+    @PreAuthorize("hasRole('ADMIN')")
+    Slice<UserProfile> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 
     @Override
     @RestResource(exported = false)
@@ -62,6 +70,14 @@ public interface UserProfileRestResource extends CrudRepository<UserProfile, Lon
     @PreAuthorize("hasRole('ADMIN')")
     Iterable<UserProfile> findAll(Iterable<Long> iterable);
 
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    Iterable<UserProfile> findAll(Sort sort);
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    Page<UserProfile> findAll(Pageable pageable);
+
     @Override
     @PreAuthorize("hasRole('ADMIN')")
     long count();
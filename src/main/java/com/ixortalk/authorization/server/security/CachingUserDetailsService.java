@@ -0,0 +1,125 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.ixortalk.authorization.server.cache.LocalCache;
+import com.ixortalk.authorization.server.cache.SharedCacheStore;
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import io.prometheus.client.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+@RepositoryEventHandler(UserProfile.class)
+public class CachingUserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService, LocalCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingUserDetailsService.class);
+
+    public static final String USER_DETAILS_CACHE_NAME = "userDetails";
+
+    private static final Counter LOOKUPS =
+            Counter.build()
+                    .name("user_details_cache_lookups_total")
+                    .help("User details lookups for the refresh token and password grants, by result (hit or miss).")
+                    .labelNames("result")
+                    .register();
+
+    private final UserDetailsService delegate;
+    private final SharedCacheStore sharedCacheStore;
+    private final Cache<String, UserDetails> userDetails;
+
+    public CachingUserDetailsService(UserDetailsService delegate, SharedCacheStore sharedCacheStore, IxorTalkConfigProperties.UserDetailsCache userDetailsCache) {
+        this.delegate = delegate;
+        this.sharedCacheStore = sharedCacheStore;
+        this.userDetails =
+                newBuilder()
+                        .maximumSize(userDetailsCache.getMaximumSize())
+                        .expireAfterWrite(userDetailsCache.getTtlInSeconds(), SECONDS)
+                        .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cached = userDetails.getIfPresent(username);
+        if (cached != null) {
+            LOOKUPS.labels("hit").inc();
+            return cached;
+        }
+
+        LOOKUPS.labels("miss").inc();
+        try {
+            return userDetails.get(username, () -> delegate.loadUserByUsername(username));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("Could not load user " + username, e.getCause());
+        }
+    }
+
+    public void evict(String username) {
+        userDetails.invalidate(username);
+        try {
+            sharedCacheStore.evict(USER_DETAILS_CACHE_NAME, username);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Shared eviction failed for " + USER_DETAILS_CACHE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    @HandleAfterSave
+    public void userProfileSaved(UserProfile userProfile) {
+        evict(userProfile.getEmail());
+    }
+
+    @HandleAfterDelete
+    public void userProfileDeleted(UserProfile userProfile) {
+        evict(userProfile.getEmail());
+    }
+
+    @Override
+    public String getName() {
+        return USER_DETAILS_CACHE_NAME;
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        userDetails.invalidate(key);
+    }
+
+    @Override
+    public void clearLocal() {
+        userDetails.invalidateAll();
+    }
+}
@@ -23,36 +23,38 @@
  */
 package com.ixortalk.authorization.server.security;
 
-import com.ixortalk.authorization.server.domain.Authority;
 import com.ixortalk.authorization.server.domain.LoginProvider;
 import com.ixortalk.authorization.server.domain.UserProfile;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.util.Collection;
 
-import static java.util.stream.Collectors.toSet;
+import static com.ixortalk.authorization.server.domain.AuthoritySet.ofAuthorities;
 
 public class UserDetails implements org.springframework.security.core.userdetails.UserDetails {
 
     private UserProfile userProfile;
 
+    private transient Collection<GrantedAuthority> authorities;
+
     public UserDetails(UserProfile userProfile) {
         this.userProfile = userProfile;
     }
 
+    public UserProfile getUserProfile() {
+        return userProfile;
+    }
+
     public LoginProvider getLoginProvider() {
         return this.userProfile.getLoginProvider();
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return userProfile
-                .getAuthorities()
-                .stream()
-                .map(Authority::getAuthority)
-                .map(SimpleGrantedAuthority::new)
-                .collect(toSet());
+        if (authorities == null) {
+            authorities = ofAuthorities(userProfile.getAuthorities()).getGrantedAuthorities();
+        }
+        return authorities;
     }
 
     @Override
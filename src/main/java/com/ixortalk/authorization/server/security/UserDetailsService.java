@@ -26,12 +26,13 @@ package com.ixortalk.authorization.server.security;
 import com.ixortalk.authorization.server.rest.UserProfileRestResource;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
-import javax.inject.Inject;
-
 public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService {
 
-    @Inject
-    private UserProfileRestResource userProfileRestResource;
+    private final UserProfileRestResource userProfileRestResource;
+
+    public UserDetailsService(UserProfileRestResource userProfileRestResource) {
+        this.userProfileRestResource = userProfileRestResource;
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -0,0 +1,73 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.signedtoken;
+
+import com.ixortalk.authorization.server.domain.LoginProvider;
+import com.ixortalk.authorization.server.security.IxorTalkPrincipal;
+import com.ixortalk.authorization.server.security.UserDetails;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+public class SignedAccessTokenConverter extends JwtAccessTokenConverter {
+
+    public static final String LOGIN_PROVIDER = "login_provider";
+
+    @Override
+    public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        Map<String, Object> additionalInformation = newLinkedHashMap(accessToken.getAdditionalInformation());
+        loginProvider(authentication).ifPresent(loginProvider -> additionalInformation.put(LOGIN_PROVIDER, loginProvider.name()));
+
+        DefaultOAuth2AccessToken withLoginProvider = new DefaultOAuth2AccessToken(accessToken);
+        withLoginProvider.setAdditionalInformation(additionalInformation);
+        DefaultOAuth2AccessToken enhanced = (DefaultOAuth2AccessToken) super.enhance(withLoginProvider, authentication);
+        if (accessToken.getRefreshToken() != null && isSigned(accessToken.getRefreshToken().getValue())) {
+            // refresh grant reusing the stored refresh token: re-encoding it would hand out a value that is never stored
+            enhanced.setRefreshToken(accessToken.getRefreshToken());
+        }
+        return enhanced;
+    }
+
+    static boolean isSigned(String tokenValue) {
+        return tokenValue.chars().filter(c -> c == '.').count() == 2;
+    }
+
+    private static Optional<LoginProvider> loginProvider(OAuth2Authentication authentication) {
+        if (authentication.getPrincipal() instanceof IxorTalkPrincipal) {
+            return of(((IxorTalkPrincipal) authentication.getPrincipal()).getLoginProvider());
+        }
+        if (authentication.getPrincipal() instanceof UserDetails) {
+            return of(((UserDetails) authentication.getPrincipal()).getLoginProvider());
+        }
+        return empty();
+    }
+}
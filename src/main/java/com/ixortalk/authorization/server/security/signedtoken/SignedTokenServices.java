@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.signedtoken;
+
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import static com.ixortalk.authorization.server.security.signedtoken.SignedAccessTokenConverter.isSigned;
+import static java.util.Optional.ofNullable;
+
+public class SignedTokenServices implements ResourceServerTokenServices {
+
+    private final JwtTokenStore jwtTokenStore;
+    private final TokenRevocationList tokenRevocationList;
+    private final ResourceServerTokenServices opaqueTokenServices;
+
+    public SignedTokenServices(JwtAccessTokenConverter jwtAccessTokenConverter, TokenRevocationList tokenRevocationList, ResourceServerTokenServices opaqueTokenServices) {
+        this.jwtTokenStore = new JwtTokenStore(jwtAccessTokenConverter);
+        this.tokenRevocationList = tokenRevocationList;
+        this.opaqueTokenServices = opaqueTokenServices;
+    }
+
+    @Override
+    public OAuth2Authentication loadAuthentication(String accessTokenValue) throws AuthenticationException, InvalidTokenException {
+        if (!isSigned(accessTokenValue)) {
+            return opaqueTokenServices.loadAuthentication(accessTokenValue);
+        }
+        OAuth2AccessToken accessToken = jwtTokenStore.readAccessToken(accessTokenValue);
+        if (accessToken.isExpired()) {
+            throw new InvalidTokenException("Access token expired: " + accessTokenValue);
+        }
+        if (ofNullable(accessToken.getAdditionalInformation().get(JwtAccessTokenConverter.TOKEN_ID)).map(Object::toString).map(tokenRevocationList::isRevoked).orElse(false)) {
+            throw new InvalidTokenException("Access token revoked: " + accessTokenValue);
+        }
+        return jwtTokenStore.readAuthentication(accessToken);
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String accessToken) {
+        return isSigned(accessToken) ? jwtTokenStore.readAccessToken(accessToken) : opaqueTokenServices.readAccessToken(accessToken);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.signedtoken;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TokenRevocationList {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final String INSERT_REVOCATION_SQL = "insert into revoked_access_token (jti, expiration) values (?, ?)";
+    private static final String DELETE_EXPIRED_REVOCATIONS_SQL = "delete from revoked_access_token where expiration < ?";
+    private static final String SELECT_REVOCATIONS_SQL = "select jti, expiration from revoked_access_token";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Map<String, Date> revocations = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public synchronized void revoke(String jti, Date expiration) {
+        try {
+            jdbcTemplate.update(INSERT_REVOCATION_SQL, jti, expiration);
+        } catch (DuplicateKeyException e) {
+            // already revoked
+        }
+        revocations.put(jti, expiration);
+    }
+
+    public boolean isRevoked(String jti) {
+        return revocations.containsKey(jti);
+    }
+
+    @Scheduled(fixedDelayString = "${ixortalk.security.signed-tokens.revocation-refresh-interval-in-millis:5000}")
+    public synchronized void refresh() {
+        try {
+            Date now = new Date();
+            jdbcTemplate.update(DELETE_EXPIRED_REVOCATIONS_SQL, now);
+            Map<String, Date> reloaded = new ConcurrentHashMap<>();
+            jdbcTemplate.query(SELECT_REVOCATIONS_SQL, resultSet -> {
+                reloaded.put(resultSet.getString("jti"), resultSet.getTimestamp("expiration"));
+            });
+            revocations = reloaded;
+        } catch (DataAccessException e) {
+            LOGGER.warn("Token revocation list refresh failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.signedtoken;
+
+import com.ixortalk.authorization.server.domain.UserProfile;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collection;
+import java.util.Date;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.DAYS;
+
+@RepositoryEventHandler(UserProfile.class)
+public class TokenRevocationService implements LogoutHandler {
+
+    private static final long UNBOUNDED_REVOCATION_IN_MILLIS = DAYS.toMillis(365);
+
+    private final TokenStore tokenStore;
+    private final TokenRevocationList tokenRevocationList;
+    private final Collection<String> clientIds;
+
+    public TokenRevocationService(TokenStore tokenStore, TokenRevocationList tokenRevocationList, Collection<String> clientIds) {
+        this.tokenStore = tokenStore;
+        this.tokenRevocationList = tokenRevocationList;
+        this.clientIds = clientIds;
+    }
+
+    public void revokeTokens(String userName) {
+        clientIds.forEach(clientId -> tokenStore.findTokensByClientIdAndUserName(clientId, userName).forEach(this::revoke));
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        if (authentication != null) {
+            revokeTokens(authentication.getName());
+        }
+    }
+
+    @HandleAfterDelete
+    public void userProfileDeleted(UserProfile userProfile) {
+        revokeTokens(userProfile.getName());
+    }
+
+    private void revoke(OAuth2AccessToken accessToken) {
+        ofNullable(accessToken.getAdditionalInformation().get(JwtAccessTokenConverter.TOKEN_ID))
+                .map(Object::toString)
+                .ifPresent(jti -> tokenRevocationList.revoke(jti, ofNullable(accessToken.getExpiration()).orElseGet(() -> new Date(currentTimeMillis() + UNBOUNDED_REVOCATION_IN_MILLIS))));
+        if (accessToken.getRefreshToken() != null) {
+            tokenStore.removeRefreshToken(accessToken.getRefreshToken());
+        }
+        tokenStore.removeAccessToken(accessToken);
+    }
+}
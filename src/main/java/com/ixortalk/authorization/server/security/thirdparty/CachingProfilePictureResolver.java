@@ -0,0 +1,151 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import io.prometheus.client.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.client.OAuth2RestTemplate;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.security.oauth2.common.OAuth2AccessToken.BEARER_TYPE;
+
+public class CachingProfilePictureResolver implements ProfilePictureResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingProfilePictureResolver.class);
+
+    private static final Counter LOOKUPS =
+            Counter.build()
+                    .name("profile_picture_lookups_total")
+                    .help("Profile picture lookups, by provider and result (hit, stale or miss).")
+                    .labelNames("provider", "result")
+                    .register();
+
+    private final String provider;
+    private final OAuth2RestTemplate oAuth2RestTemplate;
+    private final RestTemplate restTemplate;
+    private final Executor executor;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final Function<String, String> storedProfilePictureUrl;
+    private final long ttlInMillis;
+    private final Cache<String, ResolvedPicture> resolvedPictures;
+    private final Set<String> resolving = newConcurrentHashSet();
+
+    public CachingProfilePictureResolver(
+            String provider,
+            OAuth2RestTemplate oAuth2RestTemplate,
+            RestTemplate restTemplate,
+            Executor executor,
+            ApplicationEventPublisher applicationEventPublisher,
+            Function<String, String> storedProfilePictureUrl,
+            IxorTalkConfigProperties.ProfilePictureCache profilePictureCache) {
+        this.provider = provider;
+        this.oAuth2RestTemplate = oAuth2RestTemplate;
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.storedProfilePictureUrl = storedProfilePictureUrl;
+        this.ttlInMillis = SECONDS.toMillis(profilePictureCache.getTtlInSeconds());
+        this.resolvedPictures = CacheBuilder.newBuilder().maximumSize(profilePictureCache.getMaximumSize()).build();
+    }
+
+    @Override
+    public String resolve(String principalName, String mediaUri) {
+        ResolvedPicture resolvedPicture = resolvedPictures.getIfPresent(mediaUri);
+        if (resolvedPicture != null && !resolvedPicture.isExpired(ttlInMillis)) {
+            LOOKUPS.labels(provider, "hit").inc();
+            return resolvedPicture.url;
+        }
+
+        LOOKUPS.labels(provider, resolvedPicture == null ? "miss" : "stale").inc();
+        resolveAsync(principalName, mediaUri, resolvedPicture);
+        return resolvedPicture == null ? storedProfilePictureUrl.apply(principalName) : resolvedPicture.url;
+    }
+
+    private void resolveAsync(String principalName, String mediaUri, ResolvedPicture previous) {
+        OAuth2AccessToken accessToken = oAuth2RestTemplate.getOAuth2ClientContext().getAccessToken();
+        if (accessToken == null || !resolving.add(mediaUri)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    String url = fetch(mediaUri, accessToken);
+                    resolvedPictures.put(mediaUri, new ResolvedPicture(url));
+                    if (previous == null || !Objects.equals(previous.url, url)) {
+                        applicationEventPublisher.publishEvent(new ProfilePictureResolvedEvent(this, principalName, url));
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn("Error retrieving profile picture from {}: {}", mediaUri, e.getMessage());
+                } finally {
+                    resolving.remove(mediaUri);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            resolving.remove(mediaUri);
+            LOGGER.debug("Profile picture resolution for {} rejected: {}", mediaUri, e.getMessage());
+        }
+    }
+
+    private String fetch(String mediaUri, OAuth2AccessToken accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(AUTHORIZATION, BEARER_TYPE + " " + accessToken.getValue());
+        JsonNode media = restTemplate.exchange(mediaUri, GET, new HttpEntity<>(headers), JsonNode.class).getBody();
+        return media == null ? null : media.path("url").textValue();
+    }
+
+    private static class ResolvedPicture {
+
+        private final String url;
+        private final long resolvedAt = currentTimeMillis();
+
+        private ResolvedPicture(String url) {
+            this.url = url;
+        }
+
+        private boolean isExpired(long ttlInMillis) {
+            return currentTimeMillis() - resolvedAt >= ttlInMillis;
+        }
+    }
+}
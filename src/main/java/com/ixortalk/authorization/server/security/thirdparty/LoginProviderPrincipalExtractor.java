@@ -0,0 +1,54 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.ixortalk.authorization.server.domain.LoginProvider;
+import com.ixortalk.authorization.server.security.IxorTalkPrincipal;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.PrincipalExtractor;
+
+import java.util.Map;
+
+public class LoginProviderPrincipalExtractor implements PrincipalExtractor {
+
+    private final LoginProvider loginProvider;
+    private final ProfilePictureResolver profilePictureResolver;
+
+    public LoginProviderPrincipalExtractor(LoginProvider loginProvider, ProfilePictureResolver profilePictureResolver) {
+        this.loginProvider = loginProvider;
+        this.profilePictureResolver = profilePictureResolver;
+    }
+
+    @Override
+    public IxorTalkPrincipal extractPrincipal(Map<String, Object> map) {
+        String principalName = loginProvider.getPrincipalName(map);
+        return new IxorTalkPrincipal(
+                loginProvider,
+                principalName,
+                principalName,
+                loginProvider.getFirstName(map),
+                loginProvider.getLastName(map),
+                loginProvider.getProfilePictureUrl(map, profilePictureResolver),
+                loginProvider.getUserInfo(map));
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.google.common.io.CountingInputStream;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class ThirdPartyCallTelemetry implements ClientHttpRequestInterceptor {
+
+    static final String TOKEN_EXCHANGE = "token_exchange";
+    static final String REFRESH = "refresh";
+    static final String USER_INFO = "user_info";
+    static final String OTHER = "other";
+
+    private static final Histogram REQUEST_DURATION =
+            Histogram.build()
+                    .name("third_party_http_request_duration_seconds")
+                    .help("Duration of HTTP calls to third party login providers, by provider and endpoint.")
+                    .labelNames("provider", "endpoint")
+                    .register();
+
+    private static final Counter REQUESTS =
+            Counter.build()
+                    .name("third_party_http_requests_total")
+                    .help("HTTP calls to third party login providers, by provider, endpoint and response status.")
+                    .labelNames("provider", "endpoint", "status")
+                    .register();
+
+    private static final Counter ERRORS =
+            Counter.build()
+                    .name("third_party_http_errors_total")
+                    .help("HTTP calls to third party login providers that failed without a response, by provider, endpoint and error class.")
+                    .labelNames("provider", "endpoint", "error")
+                    .register();
+
+    private static final Histogram RESPONSE_SIZE =
+            Histogram.build()
+                    .name("third_party_http_response_bytes")
+                    .help("Size of response bodies from third party login providers, by provider and endpoint.")
+                    .labelNames("provider", "endpoint")
+                    .exponentialBuckets(128, 2, 10)
+                    .register();
+
+    private final String provider;
+    private final URI accessTokenUri;
+    private final URI userInfoUri;
+
+    public ThirdPartyCallTelemetry(String provider, String accessTokenUri, String userInfoUri) {
+        this.provider = provider;
+        this.accessTokenUri = accessTokenUri == null ? null : URI.create(accessTokenUri);
+        this.userInfoUri = userInfoUri == null ? null : URI.create(userInfoUri);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String endpoint = endpoint(request, body);
+        Histogram.Timer timer = REQUEST_DURATION.labels(provider, endpoint).startTimer();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            REQUESTS.labels(provider, endpoint, String.valueOf(response.getRawStatusCode())).inc();
+            return new SizeRecordingResponse(response, RESPONSE_SIZE.labels(provider, endpoint));
+        } catch (IOException | RuntimeException e) {
+            ERRORS.labels(provider, endpoint, e.getClass().getSimpleName()).inc();
+            throw e;
+        } finally {
+            timer.observeDuration();
+        }
+    }
+
+    String endpoint(HttpRequest request, byte[] body) {
+        if (sameEndpoint(request.getURI(), accessTokenUri)) {
+            return new String(body, UTF_8).contains("grant_type=refresh_token") ? REFRESH : TOKEN_EXCHANGE;
+        }
+        if (sameEndpoint(request.getURI(), userInfoUri)) {
+            return USER_INFO;
+        }
+        return OTHER;
+    }
+
+    private static boolean sameEndpoint(URI uri, URI endpoint) {
+        return endpoint != null
+                && endpoint.getHost() != null
+                && endpoint.getHost().equalsIgnoreCase(uri.getHost())
+                && endpoint.getPort() == uri.getPort()
+                && endpoint.getPath().equals(uri.getPath());
+    }
+
+    private static class SizeRecordingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Histogram.Child responseSize;
+        private CountingInputStream body;
+
+        private SizeRecordingResponse(ClientHttpResponse delegate, Histogram.Child responseSize) {
+            this.delegate = delegate;
+            this.responseSize = responseSize;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return delegate.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                responseSize.observe(body != null ? body.getCount() : max(getHeaders().getContentLength(), 0));
+            } finally {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Throwables.getCausalChain;
+
+public class ThirdPartyCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final Gauge STATE =
+            Gauge.build()
+                    .name("third_party_circuit_breaker_state")
+                    .help("Circuit breaker state per third party login provider (0 closed, 1 open, 2 half open).")
+                    .labelNames("provider")
+                    .register();
+
+    private static final Counter CALLS =
+            Counter.build()
+                    .name("third_party_circuit_breaker_calls_total")
+                    .help("Calls through the third party circuit breaker, by provider and result (success, failure, rejected, rejected_open, rejected_bulkhead).")
+                    .labelNames("provider", "result")
+                    .register();
+
+    private final String provider;
+    private final int failureThreshold;
+    private final long openDurationInMillis;
+    private final Semaphore bulkhead;
+    private final Clock clock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInProgress = new AtomicBoolean();
+    private volatile long openedAt = -1;
+
+    public ThirdPartyCircuitBreaker(String provider, IxorTalkConfigProperties.CircuitBreaker circuitBreakerProperties) {
+        this(provider, circuitBreakerProperties, Clock.systemUTC());
+    }
+
+    ThirdPartyCircuitBreaker(String provider, IxorTalkConfigProperties.CircuitBreaker circuitBreakerProperties, Clock clock) {
+        this.provider = provider;
+        this.failureThreshold = circuitBreakerProperties.getFailureThreshold();
+        this.openDurationInMillis = circuitBreakerProperties.getOpenDurationInMillis();
+        this.bulkhead = new Semaphore(circuitBreakerProperties.getMaxConcurrentCalls());
+        this.clock = clock;
+        STATE.labels(provider).set(State.CLOSED.ordinal());
+    }
+
+    public <T> T call(Supplier<T> call) {
+        boolean trial = false;
+        if (openedAt >= 0) {
+            if (clock.millis() - openedAt < openDurationInMillis || !trialInProgress.compareAndSet(false, true)) {
+                CALLS.labels(provider, "rejected_open").inc();
+                throw new CallNotPermittedException(provider + " circuit breaker is open");
+            }
+            trial = true;
+            STATE.labels(provider).set(State.HALF_OPEN.ordinal());
+        }
+
+        if (!bulkhead.tryAcquire()) {
+            if (trial) {
+                trialInProgress.set(false);
+            }
+            CALLS.labels(provider, "rejected_bulkhead").inc();
+            throw new CallNotPermittedException(provider + " has too many concurrent calls in progress");
+        }
+
+        try {
+            T result = call.get();
+            onSuccess("success");
+            return result;
+        } catch (RuntimeException e) {
+            if (isProviderFailure(e)) {
+                onFailure(trial);
+            } else {
+                onSuccess("rejected");
+            }
+            throw e;
+        } finally {
+            if (trial) {
+                endTrial();
+            }
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Only an unreachable, slow or failing provider counts towards opening the circuit: a provider that answers with a
+     * client error (e.g. an invalid or revoked token for one user) is healthy.
+     */
+    static boolean isProviderFailure(Throwable e) {
+        return getCausalChain(e)
+                .stream()
+                .anyMatch(cause -> cause instanceof ResourceAccessException || cause instanceof HttpServerErrorException || cause instanceof IOException);
+    }
+
+    public State getState() {
+        if (openedAt < 0) {
+            return State.CLOSED;
+        }
+        return trialInProgress.get() ? State.HALF_OPEN : State.OPEN;
+    }
+
+    private void onSuccess(String result) {
+        CALLS.labels(provider, result).inc();
+        consecutiveFailures.set(0);
+        if (openedAt >= 0) {
+            openedAt = -1;
+            STATE.labels(provider).set(State.CLOSED.ordinal());
+        }
+    }
+
+    private void onFailure(boolean trial) {
+        CALLS.labels(provider, "failure").inc();
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold || trial) {
+            openedAt = clock.millis();
+            STATE.labels(provider).set(State.OPEN.ordinal());
+        }
+    }
+
+    private void endTrial() {
+        trialInProgress.set(false);
+        if (openedAt >= 0) {
+            STATE.labels(provider).set(State.OPEN.ordinal());
+        }
+    }
+
+    public static class CallNotPermittedException extends RuntimeException {
+
+        CallNotPermittedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2RestTemplate;
+import org.springframework.security.oauth2.client.token.AccessTokenProviderChain;
+import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeAccessTokenProvider;
+import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeResourceDetails;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static java.util.Collections.singletonList;
+
+public class ThirdPartyClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThirdPartyClient.class);
+
+    private final String provider;
+    private final ThirdPartyHttpClient httpClient;
+    private final OAuth2RestTemplate oAuth2RestTemplate;
+    private final RestTemplate restTemplate;
+    private final Set<URI> warmUpUris;
+    private final int warmUpConnections;
+
+    public ThirdPartyClient(
+            String provider,
+            IxorTalkConfigProperties.HttpClient httpClientProperties,
+            AuthorizationCodeResourceDetails resource,
+            String userInfoUri,
+            OAuth2ClientContext oAuth2ClientContext) {
+        this.provider = provider;
+        this.httpClient = new ThirdPartyHttpClient(httpClientProperties, new ThirdPartyCallTelemetry(provider, resource.getAccessTokenUri(), userInfoUri));
+
+        AuthorizationCodeAccessTokenProvider accessTokenProvider = new AuthorizationCodeAccessTokenProvider();
+        accessTokenProvider.setRequestFactory(httpClient.getRequestFactory());
+        this.oAuth2RestTemplate = new OAuth2RestTemplate(resource, oAuth2ClientContext);
+        this.oAuth2RestTemplate.setRequestFactory(httpClient.getRequestFactory());
+        this.oAuth2RestTemplate.setAccessTokenProvider(new AccessTokenProviderChain(singletonList(accessTokenProvider)));
+
+        this.restTemplate = new RestTemplate(oAuth2RestTemplate.getMessageConverters());
+        this.restTemplate.setRequestFactory(httpClient.getRequestFactory());
+
+        this.warmUpUris = newLinkedHashSet();
+        this.warmUpUris.add(origin(resource.getAccessTokenUri()));
+        this.warmUpUris.add(origin(userInfoUri));
+        this.warmUpConnections = httpClientProperties.getWarmUpConnections();
+    }
+
+    public void warmUp() {
+        if (warmUpConnections <= 0) {
+            return;
+        }
+        for (URI uri : warmUpUris) {
+            try {
+                int opened = httpClient.warmUp(uri, warmUpConnections);
+                LOGGER.info("Warmed up {} connections to {} for {}", opened, uri.getAuthority(), provider);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.warn("Could not warm up connections to {} for {}: {}", uri.getAuthority(), provider, e.getMessage());
+            }
+        }
+    }
+
+    public ThirdPartyHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public OAuth2RestTemplate getOAuth2RestTemplate() {
+        return oAuth2RestTemplate;
+    }
+
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private static URI origin(String uri) {
+        URI parsed = URI.create(uri);
+        return URI.create(parsed.getScheme() + "://" + parsed.getRawAuthority());
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.Arrays.asList;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class ThirdPartyHttpClient {
+
+    private final IxorTalkConfigProperties.HttpClient httpClientProperties;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ClientHttpRequestFactory requestFactory;
+
+    public ThirdPartyHttpClient(IxorTalkConfigProperties.HttpClient httpClientProperties, ClientHttpRequestInterceptor... interceptors) {
+        this.httpClientProperties = httpClientProperties;
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        this.connectionManager.setMaxTotal(httpClientProperties.getMaxConnections());
+        this.connectionManager.setDefaultMaxPerRoute(httpClientProperties.getMaxConnectionsPerRoute());
+        this.connectionManager.setValidateAfterInactivity(httpClientProperties.getValidateAfterInactivityInMillis());
+        this.httpClient =
+                HttpClients.custom()
+                        .setConnectionManager(connectionManager)
+                        .setDefaultRequestConfig(
+                                RequestConfig.custom()
+                                        .setConnectTimeout(httpClientProperties.getConnectTimeoutInMillis())
+                                        .setSocketTimeout(httpClientProperties.getReadTimeoutInMillis())
+                                        .setConnectionRequestTimeout(httpClientProperties.getConnectionRequestTimeoutInMillis())
+                                        .build())
+                        .setRetryHandler((exception, executionCount, context) -> executionCount == 1 && exception instanceof NoHttpResponseException)
+                        .evictExpiredConnections()
+                        .evictIdleConnections(httpClientProperties.getIdleTimeoutInSeconds(), SECONDS)
+                        .useSystemProperties()
+                        .build();
+        this.requestFactory = new InterceptingClientHttpRequestFactory(new HttpComponentsClientHttpRequestFactory(httpClient), asList(interceptors));
+    }
+
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    public int warmUp(URI uri, int connections) throws IOException, InterruptedException, ExecutionException {
+        InetAddress.getAllByName(uri.getHost());
+
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        HttpRoute route = new HttpRoute(new HttpHost(uri.getHost(), uri.getPort() > 0 ? uri.getPort() : secure ? 443 : 80, uri.getScheme()), null, secure);
+        List<HttpClientConnection> leased = newArrayList();
+        try {
+            for (int i = 0; i < connections; i++) {
+                HttpClientConnection connection = connectionManager.requestConnection(route, null).get(httpClientProperties.getConnectionRequestTimeoutInMillis(), MILLISECONDS);
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(connection, route, httpClientProperties.getConnectTimeoutInMillis(), context);
+                    connectionManager.routeComplete(connection, route, context);
+                }
+            }
+        } finally {
+            leased.forEach(connection -> connectionManager.releaseConnection(connection, null, httpClientProperties.getIdleTimeoutInSeconds(), SECONDS));
+        }
+        return leased.size();
+    }
+
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
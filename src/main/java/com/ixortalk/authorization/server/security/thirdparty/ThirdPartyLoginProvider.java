@@ -30,23 +30,33 @@ import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResour
 
 public class ThirdPartyLoginProvider {
 
+    private String name;
     private OAuth2ProtectedResourceDetails resource;
     private LoginProvider loginProvider;
     private String loginPath;
-    private OAuth2RestTemplate oAuth2RestTemplate;
+    private ThirdPartyClient client;
     private UserInfoTokenServices userInfoTokenServices;
+    private ThirdPartyCircuitBreaker circuitBreaker;
 
     public ThirdPartyLoginProvider(
+            String name,
             OAuth2ProtectedResourceDetails resource,
             LoginProvider loginProvider,
             String loginPath,
-            OAuth2RestTemplate oAuth2RestTemplate,
-            UserInfoTokenServices userInfoTokenServices) {
+            ThirdPartyClient client,
+            UserInfoTokenServices userInfoTokenServices,
+            ThirdPartyCircuitBreaker circuitBreaker) {
+        this.name = name;
         this.resource = resource;
         this.loginProvider = loginProvider;
         this.loginPath = loginPath;
-        this.oAuth2RestTemplate = oAuth2RestTemplate;
+        this.client = client;
         this.userInfoTokenServices = userInfoTokenServices;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public String getName() {
+        return name;
     }
 
     public OAuth2ProtectedResourceDetails getResource() {
@@ -61,11 +71,19 @@ public class ThirdPartyLoginProvider {
         return loginPath;
     }
 
+    public ThirdPartyClient getClient() {
+        return client;
+    }
+
     public OAuth2RestTemplate getOAuth2RestTemplate() {
-        return oAuth2RestTemplate;
+        return client.getOAuth2RestTemplate();
     }
 
     public UserInfoTokenServices getUserInfoTokenServices() {
         return userInfoTokenServices;
     }
+
+    public ThirdPartyCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
 }
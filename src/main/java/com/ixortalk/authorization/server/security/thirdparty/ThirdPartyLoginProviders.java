@@ -24,31 +24,53 @@
 package com.ixortalk.authorization.server.security.thirdparty;
 
 import com.ixortalk.authorization.server.domain.LoginProvider;
+import io.prometheus.client.Collector;
+import io.prometheus.client.GaugeMetricFamily;
+import org.apache.http.pool.PoolStats;
 import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static io.prometheus.client.CollectorRegistry.defaultRegistry;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toSet;
 
 public class ThirdPartyLoginProviders {
 
     private final Map<LoginProvider, ThirdPartyLoginProvider> thirdPartyLoginProviderMap;
+    private final Map<String, ThirdPartyHttpClient> httpClients;
+    private final PoolCollector poolCollector = new PoolCollector();
 
     private Set<String> thirdPartyClientIds;
 
     @PostConstruct
     public void postConstruct() {
         thirdPartyClientIds = thirdPartyLoginProviderMap.values().stream().map(ThirdPartyLoginProvider::getResource).map(OAuth2ProtectedResourceDetails::getClientId).collect(toSet());
+        thirdPartyLoginProviderMap.values().stream().map(ThirdPartyLoginProvider::getClient).forEach(ThirdPartyClient::warmUp);
+        poolCollector.register();
+    }
+
+    @PreDestroy
+    public void preDestroy() throws IOException {
+        defaultRegistry.unregister(poolCollector);
+        for (ThirdPartyLoginProvider thirdPartyLoginProvider : thirdPartyLoginProviderMap.values()) {
+            thirdPartyLoginProvider.getClient().close();
+        }
     }
 
     public ThirdPartyLoginProviders(List<ThirdPartyLoginProvider> thirdPartyLoginProviders) {
         thirdPartyLoginProviderMap = thirdPartyLoginProviders.stream().collect(Collectors.toMap(ThirdPartyLoginProvider::getLoginProvider, identity()));
+        httpClients = thirdPartyLoginProviders.stream().collect(Collectors.toMap(ThirdPartyLoginProvider::getName, thirdPartyLoginProvider -> thirdPartyLoginProvider.getClient().getHttpClient()));
     }
 
     public ThirdPartyLoginProvider getLoginProvider(LoginProvider loginProvider) {
@@ -62,4 +84,32 @@ public class ThirdPartyLoginProviders {
     public Set<String> getThirdPartyClientIds() {
         return this.thirdPartyClientIds;
     }
+
+    /**
+     * Describes no names up front: every application context owns its own pools and registers its own collector.
+     */
+    private class PoolCollector extends Collector implements Collector.Describable {
+
+        @Override
+        public List<MetricFamilySamples> describe() {
+            return emptyList();
+        }
+
+        @Override
+        public List<MetricFamilySamples> collect() {
+            GaugeMetricFamily connections =
+                    new GaugeMetricFamily(
+                            "third_party_http_pool_connections",
+                            "Connections in the third party HTTP client pool, by provider and state (leased, available, pending, max).",
+                            asList("provider", "state"));
+            httpClients.forEach((provider, httpClient) -> {
+                PoolStats poolStats = httpClient.getPoolStats();
+                connections.addMetric(asList(provider, "leased"), poolStats.getLeased());
+                connections.addMetric(asList(provider, "available"), poolStats.getAvailable());
+                connections.addMetric(asList(provider, "pending"), poolStats.getPending());
+                connections.addMetric(asList(provider, "max"), poolStats.getMax());
+            });
+            return singletonList(connections);
+        }
+    }
 }
@@ -0,0 +1,85 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.client.token.AccessTokenRequest;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session scoped holder of one {@link OAuth2ClientContext} per third party login, so a token obtained from one provider
+ * is never sent to another provider within the same session.
+ */
+public class ThirdPartyOAuth2ClientContexts implements Serializable {
+
+    private final AccessTokenRequest accessTokenRequest;
+
+    private final Map<String, OAuth2ClientContext> contexts = new ConcurrentHashMap<>();
+
+    public ThirdPartyOAuth2ClientContexts(AccessTokenRequest accessTokenRequest) {
+        this.accessTokenRequest = accessTokenRequest;
+    }
+
+    public OAuth2ClientContext getContext(String provider) {
+        return contexts.computeIfAbsent(provider, key -> new DefaultOAuth2ClientContext(accessTokenRequest));
+    }
+
+    /**
+     * The context for one provider, resolved against the session of the current request on every call.
+     */
+    public static OAuth2ClientContext forProvider(ThirdPartyOAuth2ClientContexts sessionContexts, String provider) {
+        return new OAuth2ClientContext() {
+
+            @Override
+            public OAuth2AccessToken getAccessToken() {
+                return sessionContexts.getContext(provider).getAccessToken();
+            }
+
+            @Override
+            public void setAccessToken(OAuth2AccessToken accessToken) {
+                sessionContexts.getContext(provider).setAccessToken(accessToken);
+            }
+
+            @Override
+            public AccessTokenRequest getAccessTokenRequest() {
+                return sessionContexts.getContext(provider).getAccessTokenRequest();
+            }
+
+            @Override
+            public void setPreservedState(String stateKey, Object preservedState) {
+                sessionContexts.getContext(provider).setPreservedState(stateKey, preservedState);
+            }
+
+            @Override
+            public Object removePreservedState(String stateKey) {
+                return sessionContexts.getContext(provider).removePreservedState(stateKey);
+            }
+        };
+    }
+}
@@ -23,13 +23,18 @@
  */
 package com.ixortalk.authorization.server.security.thirdparty;
 
-import com.ixortalk.authorization.server.domain.Authority;
+import com.ixortalk.authorization.server.domain.AuthoritySet;
 import com.ixortalk.authorization.server.domain.UserProfile;
 import com.ixortalk.authorization.server.rest.UserProfileRestResource;
+import com.ixortalk.authorization.server.security.CachingUserDetailsService;
 import com.ixortalk.authorization.server.security.IxorTalkPrincipal;
+import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCircuitBreaker.CallNotPermittedException;
+import io.prometheus.client.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.util.Pair;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
@@ -37,12 +42,25 @@ import org.springframework.security.oauth2.provider.token.TokenStore;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.Objects;
+import java.util.Optional;
 
-import static java.util.stream.Collectors.toSet;
+import static com.ixortalk.authorization.server.domain.AuthoritySet.ofAuthorities;
+import static com.ixortalk.authorization.server.domain.AuthoritySet.ofGrantedAuthorities;
+import static com.ixortalk.authorization.server.rest.UserInfoService.USER_INFO_CACHE_NAME;
 
 @Named
 public class ThirdPartyProfileService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThirdPartyProfileService.class);
+
+    private static final Counter PROFILE_WRITES =
+            Counter.build()
+                    .name("user_profile_writes_total")
+                    .help("User profile writes on login and refresh, by type (skipped, partial or full).")
+                    .labelNames("type")
+                    .register();
+
     @Inject
     private UserProfileRestResource userProfileRestResource;
 
@@ -55,6 +73,12 @@ public class ThirdPartyProfileService {
     @Inject
     private ThirdPartyTokenService thirdPartyTokenService;
 
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private CachingUserDetailsService userDetailsService;
+
     public void updateProfile(OAuth2Authentication oAuth2Authentication) {
         if (!(oAuth2Authentication.getPrincipal() instanceof IxorTalkPrincipal)) {
             return;
@@ -66,39 +90,62 @@ public class ThirdPartyProfileService {
             thirdPartyTokenService.storeThirdPartyToken(ixorTalkPrincipal, oAuth2Authentication);
         }
 
-        userProfileRestResource.save(
+        AuthoritySet authorities = ofGrantedAuthorities(oAuth2Authentication.getAuthorities());
+
+        Optional<UserProfile> existing =
                 userProfileRestResource.findByEmail(ixorTalkPrincipal.getName())
-                        .map(userProfile -> userProfile.assertCorrectProvider(ixorTalkPrincipal.getLoginProvider()))
-                        .map(existing ->
-                                existing.update(
-                                        ixorTalkPrincipal.getName(),
-                                        ixorTalkPrincipal.getName(),
-                                        ixorTalkPrincipal.getFirstName(),
-                                        ixorTalkPrincipal.getLastName(),
-                                        ixorTalkPrincipal.getProfilePictureUrl(),
-                                        oAuth2Authentication
-                                                .getAuthorities()
-                                                .stream()
-                                                .map(GrantedAuthority::getAuthority)
-                                                .map(Authority::authority)
-                                                .collect(toSet()),
-                                        ixorTalkPrincipal.getLoginProvider()
-                                ))
-                        .orElseGet(() ->
-                                new UserProfile(
-                                        ixorTalkPrincipal.getName(),
-                                        ixorTalkPrincipal.getName(),
-                                        ixorTalkPrincipal.getFirstName(),
-                                        ixorTalkPrincipal.getLastName(),
-                                        ixorTalkPrincipal.getProfilePictureUrl(),
-                                        oAuth2Authentication
-                                                .getAuthorities()
-                                                .stream()
-                                                .map(GrantedAuthority::getAuthority)
-                                                .map(Authority::authority)
-                                                .collect(toSet()),
-                                        ixorTalkPrincipal.getLoginProvider()
-                                )));
+                        .map(userProfile -> userProfile.assertCorrectProvider(ixorTalkPrincipal.getLoginProvider()));
+
+        if (!existing.isPresent()) {
+            userProfileRestResource.save(
+                    new UserProfile(
+                            ixorTalkPrincipal.getName(),
+                            ixorTalkPrincipal.getName(),
+                            ixorTalkPrincipal.getFirstName(),
+                            ixorTalkPrincipal.getLastName(),
+                            ixorTalkPrincipal.getProfilePictureUrl(),
+                            authorities.toAuthorities(),
+                            ixorTalkPrincipal.getLoginProvider()));
+            userDetailsService.evict(ixorTalkPrincipal.getName());
+            PROFILE_WRITES.labels("full").inc();
+            return;
+        }
+
+        UserProfile userProfile = existing.get();
+        boolean sameAuthorities = ofAuthorities(userProfile.getAuthorities()).equals(authorities);
+        if (sameAuthorities && userProfile.hasDetails(
+                ixorTalkPrincipal.getName(),
+                ixorTalkPrincipal.getName(),
+                ixorTalkPrincipal.getFirstName(),
+                ixorTalkPrincipal.getLastName(),
+                ixorTalkPrincipal.getProfilePictureUrl(),
+                ixorTalkPrincipal.getLoginProvider())) {
+            PROFILE_WRITES.labels("skipped").inc();
+            return;
+        }
+
+        userProfileRestResource.save(
+                userProfile.update(
+                        ixorTalkPrincipal.getName(),
+                        ixorTalkPrincipal.getName(),
+                        ixorTalkPrincipal.getFirstName(),
+                        ixorTalkPrincipal.getLastName(),
+                        ixorTalkPrincipal.getProfilePictureUrl(),
+                        authorities.toAuthorities(),
+                        ixorTalkPrincipal.getLoginProvider()));
+        userDetailsService.evict(ixorTalkPrincipal.getName());
+        PROFILE_WRITES.labels(sameAuthorities ? "partial" : "full").inc();
+    }
+
+    public void updateProfilePicture(String principalName, String profilePictureUrl) {
+        userProfileRestResource.findByEmail(principalName)
+                .filter(userProfile -> !Objects.equals(userProfile.getProfilePictureUrl(), profilePictureUrl))
+                .ifPresent(userProfile -> {
+                    userProfileRestResource.save(userProfile.updateProfilePictureUrl(profilePictureUrl));
+                    userDetailsService.evict(principalName);
+                    PROFILE_WRITES.labels("partial").inc();
+                    cacheManager.getCache(USER_INFO_CACHE_NAME).evict(principalName);
+                });
     }
 
     private boolean isThirdPartyAuthentication(OAuth2Authentication oAuth2Authentication) {
@@ -113,18 +160,28 @@ public class ThirdPartyProfileService {
 
         thirdPartyLoginProvider.getOAuth2RestTemplate().getOAuth2ClientContext().setAccessToken(oAuth2AccessToken);
 
-        OAuth2AccessToken accessToken;
+        OAuth2Authentication refreshedThirdPartyOAuth2Authentication;
         try {
-            accessToken = thirdPartyLoginProvider.getOAuth2RestTemplate().getAccessToken();
-        } catch (OAuth2Exception e) {
-            throw new BadCredentialsException("Could not obtain access token", e);
+            refreshedThirdPartyOAuth2Authentication = thirdPartyLoginProvider.getCircuitBreaker().call(() -> loadThirdPartyAuthentication(thirdPartyLoginProvider));
+        } catch (CallNotPermittedException e) {
+            LOGGER.debug("Serving last known profile for {}: {}", oAuth2Authentication.getName(), e.getMessage());
+            return;
         }
 
-        OAuth2Authentication refreshedThirdPartyOAuth2Authentication = thirdPartyLoginProvider.getUserInfoTokenServices().loadAuthentication(accessToken.getValue());
         OAuth2Authentication refreshedInternalOAuth2Authentication = new OAuth2Authentication(oAuth2Authentication.getOAuth2Request(), refreshedThirdPartyOAuth2Authentication);
 
         tokenStore.storeAccessToken(tokenStore.getAccessToken(refreshedInternalOAuth2Authentication), refreshedInternalOAuth2Authentication);
 
         updateProfile(refreshedThirdPartyOAuth2Authentication);
     }
+
+    private static OAuth2Authentication loadThirdPartyAuthentication(ThirdPartyLoginProvider thirdPartyLoginProvider) {
+        OAuth2AccessToken accessToken;
+        try {
+            accessToken = thirdPartyLoginProvider.getOAuth2RestTemplate().getAccessToken();
+        } catch (OAuth2Exception e) {
+            throw new BadCredentialsException("Could not obtain access token", e);
+        }
+        return thirdPartyLoginProvider.getUserInfoTokenServices().loadAuthentication(accessToken.getValue());
+    }
 }
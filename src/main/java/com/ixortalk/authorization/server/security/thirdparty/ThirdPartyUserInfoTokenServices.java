@@ -0,0 +1,89 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import org.springframework.boot.autoconfigure.security.oauth2.resource.AuthoritiesExtractor;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.FixedAuthoritiesExtractor;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.UserInfoTokenServices;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.client.OAuth2RestOperations;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+import java.util.Map;
+
+/**
+ * {@link UserInfoTokenServices} swallows every failure of the user info call into an error map, which hides provider
+ * outages from the {@link ThirdPartyCircuitBreaker}. This variant keeps the failure as the cause of the
+ * {@link InvalidTokenException}.
+ */
+public class ThirdPartyUserInfoTokenServices extends UserInfoTokenServices {
+
+    private final String userInfoEndpointUrl;
+    private final String clientId;
+    private final OAuth2RestOperations restTemplate;
+    private AuthoritiesExtractor authoritiesExtractor = new FixedAuthoritiesExtractor();
+
+    public ThirdPartyUserInfoTokenServices(String userInfoEndpointUrl, String clientId, OAuth2RestOperations restTemplate) {
+        super(userInfoEndpointUrl, clientId);
+        super.setRestTemplate(restTemplate);
+        this.userInfoEndpointUrl = userInfoEndpointUrl;
+        this.clientId = clientId;
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public void setAuthoritiesExtractor(AuthoritiesExtractor authoritiesExtractor) {
+        super.setAuthoritiesExtractor(authoritiesExtractor);
+        this.authoritiesExtractor = authoritiesExtractor;
+    }
+
+    @Override
+    public OAuth2Authentication loadAuthentication(String accessToken) {
+        Map<String, Object> userInfo = userInfo(accessToken);
+        if (userInfo == null || userInfo.containsKey("error")) {
+            throw new InvalidTokenException(accessToken);
+        }
+
+        UsernamePasswordAuthenticationToken userAuthentication = new UsernamePasswordAuthenticationToken(getPrincipal(userInfo), "N/A", authoritiesExtractor.extractAuthorities(userInfo));
+        userAuthentication.setDetails(userInfo);
+        return new OAuth2Authentication(new OAuth2Request(null, clientId, null, true, null, null, null, null, null), userAuthentication);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> userInfo(String accessToken) {
+        OAuth2AccessToken existingToken = restTemplate.getOAuth2ClientContext().getAccessToken();
+        if (existingToken == null || !accessToken.equals(existingToken.getValue())) {
+            restTemplate.getOAuth2ClientContext().setAccessToken(new DefaultOAuth2AccessToken(accessToken));
+        }
+        try {
+            return restTemplate.getForEntity(userInfoEndpointUrl, Map.class).getBody();
+        } catch (RuntimeException e) {
+            throw new InvalidTokenException("Could not fetch user details: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,548 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import com.ixortalk.authorization.server.domain.Authority;
+import com.ixortalk.authorization.server.domain.LoginProvider;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import com.ixortalk.authorization.server.security.IxorTalkPrincipal;
+import com.ixortalk.authorization.server.security.UserDetails;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.util.SerializationUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.ixortalk.authorization.server.domain.AuthorityRegistry.grantedAuthority;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toSet;
+
+public class BinaryTokenCodec implements TokenCodec {
+
+    private static final byte[] MAGIC = {'I', 'X'};
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_ACCESS_TOKEN = 'A';
+    private static final byte TYPE_REFRESH_TOKEN = 'R';
+    private static final byte TYPE_AUTHENTICATION = 'U';
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte MAP = 6;
+    private static final byte LIST = 7;
+    private static final byte SET = 8;
+    private static final byte DATE = 9;
+    private static final byte GRANTED_AUTHORITY = 10;
+    private static final byte IXORTALK_PRINCIPAL = 11;
+    private static final byte USER_DETAILS = 12;
+    private static final byte OAUTH2_AUTHENTICATION = 13;
+    private static final byte USERNAME_PASSWORD_AUTHENTICATION = 14;
+    private static final byte PRE_AUTHENTICATED_AUTHENTICATION = 15;
+    private static final byte JAVA_SERIALIZED = 127;
+
+    private static final byte NO_REFRESH_TOKEN = 0;
+    private static final byte REFRESH_TOKEN = 1;
+    private static final byte EXPIRING_REFRESH_TOKEN = 2;
+
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        return bytes != null && bytes.length >= 4 && bytes[0] == MAGIC[0] && bytes[1] == MAGIC[1];
+    }
+
+    @Override
+    public byte[] encodeAccessToken(OAuth2AccessToken accessToken) {
+        return encode(TYPE_ACCESS_TOKEN, out -> {
+            writeString(out, accessToken.getValue());
+            writeString(out, accessToken.getTokenType());
+            writeDate(out, accessToken.getExpiration());
+            writeStrings(out, accessToken.getScope());
+            writeRefreshToken(out, accessToken.getRefreshToken());
+            writeValue(out, accessToken.getAdditionalInformation());
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public OAuth2AccessToken decodeAccessToken(byte[] bytes) {
+        return decode(bytes, TYPE_ACCESS_TOKEN, in -> {
+            DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken(readString(in));
+            accessToken.setTokenType(readString(in));
+            accessToken.setExpiration(readDate(in));
+            accessToken.setScope(readStrings(in, new LinkedHashSet<>()));
+            accessToken.setRefreshToken(readRefreshToken(in));
+            accessToken.setAdditionalInformation((Map<String, Object>) readValue(in));
+            return accessToken;
+        });
+    }
+
+    @Override
+    public byte[] encodeRefreshToken(OAuth2RefreshToken refreshToken) {
+        return encode(TYPE_REFRESH_TOKEN, out -> writeRefreshToken(out, refreshToken));
+    }
+
+    @Override
+    public OAuth2RefreshToken decodeRefreshToken(byte[] bytes) {
+        return decode(bytes, TYPE_REFRESH_TOKEN, BinaryTokenCodec::readRefreshToken);
+    }
+
+    @Override
+    public byte[] encodeAuthentication(OAuth2Authentication authentication) {
+        return encode(TYPE_AUTHENTICATION, out -> writeOAuth2Authentication(out, authentication));
+    }
+
+    @Override
+    public OAuth2Authentication decodeAuthentication(byte[] bytes) {
+        return decode(bytes, TYPE_AUTHENTICATION, BinaryTokenCodec::readOAuth2Authentication);
+    }
+
+    private static byte[] encode(byte type, Writer writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(type);
+            writer.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to encode token: " + e.getMessage(), e);
+        }
+    }
+
+    private <T> T decode(byte[] bytes, byte type, Reader<T> reader) {
+        if (!canDecode(bytes)) {
+            throw new IllegalArgumentException("Not a binary encoded token");
+        }
+        if (bytes[2] != VERSION || bytes[3] != type) {
+            throw new IllegalArgumentException("Unsupported binary token version " + bytes[2] + " or type " + (char) bytes[3]);
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 4, bytes.length - 4));
+            return reader.read(in);
+        } catch (IOException | ClassCastException e) {
+            throw new IllegalArgumentException("Unable to decode token: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeRefreshToken(DataOutputStream out, OAuth2RefreshToken refreshToken) throws IOException {
+        if (refreshToken == null) {
+            out.writeByte(NO_REFRESH_TOKEN);
+        } else if (refreshToken instanceof ExpiringOAuth2RefreshToken) {
+            out.writeByte(EXPIRING_REFRESH_TOKEN);
+            writeString(out, refreshToken.getValue());
+            writeDate(out, ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration());
+        } else {
+            out.writeByte(REFRESH_TOKEN);
+            writeString(out, refreshToken.getValue());
+        }
+    }
+
+    private static OAuth2RefreshToken readRefreshToken(DataInputStream in) throws IOException {
+        switch (in.readByte()) {
+            case NO_REFRESH_TOKEN:
+                return null;
+            case REFRESH_TOKEN:
+                return new DefaultOAuth2RefreshToken(readString(in));
+            case EXPIRING_REFRESH_TOKEN:
+                return new DefaultExpiringOAuth2RefreshToken(readString(in), readDate(in));
+            default:
+                throw new IOException("Unknown refresh token marker");
+        }
+    }
+
+    private static void writeOAuth2Authentication(DataOutputStream out, OAuth2Authentication authentication) throws IOException {
+        writeOAuth2Request(out, authentication.getOAuth2Request());
+        writeValue(out, authentication.getUserAuthentication());
+        writeValue(out, authentication.getDetails());
+    }
+
+    private static OAuth2Authentication readOAuth2Authentication(DataInputStream in) throws IOException {
+        OAuth2Authentication authentication = new OAuth2Authentication(readOAuth2Request(in), (org.springframework.security.core.Authentication) readValue(in));
+        authentication.setDetails(readValue(in));
+        return authentication;
+    }
+
+    private static void writeOAuth2Request(DataOutputStream out, OAuth2Request request) throws IOException {
+        writeString(out, request.getClientId());
+        writeValue(out, request.getRequestParameters());
+        writeAuthorities(out, request.getAuthorities());
+        out.writeBoolean(request.isApproved());
+        writeStrings(out, request.getScope());
+        writeStrings(out, request.getResourceIds());
+        writeString(out, request.getRedirectUri());
+        writeStrings(out, request.getResponseTypes());
+        writeValue(out, request.getExtensions());
+        TokenRequest refresh = request.getRefreshTokenRequest();
+        out.writeBoolean(refresh != null);
+        if (refresh != null) {
+            writeValue(out, refresh.getRequestParameters());
+            writeString(out, refresh.getClientId());
+            writeStrings(out, refresh.getScope());
+            writeString(out, refresh.getGrantType());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static OAuth2Request readOAuth2Request(DataInputStream in) throws IOException {
+        String clientId = readString(in);
+        Map<String, String> requestParameters = (Map<String, String>) readValue(in);
+        List<GrantedAuthority> authorities = readAuthorities(in);
+        boolean approved = in.readBoolean();
+        Set<String> scope = readStrings(in, new LinkedHashSet<>());
+        Set<String> resourceIds = readStrings(in, new LinkedHashSet<>());
+        String redirectUri = readString(in);
+        Set<String> responseTypes = readStrings(in, new LinkedHashSet<>());
+        Map<String, Serializable> extensions = (Map<String, Serializable>) readValue(in);
+        OAuth2Request request = new OAuth2Request(requestParameters, clientId, authorities, approved, scope, resourceIds, redirectUri, responseTypes, extensions);
+        if (in.readBoolean()) {
+            request = request.refresh(new TokenRequest((Map<String, String>) readValue(in), readString(in), readStrings(in, new LinkedHashSet<>()), readString(in)));
+        }
+        return request;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value.getClass() == Integer.class) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value.getClass() == Long.class) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value.getClass() == Double.class) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value.getClass() == Boolean.class) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            Map<?, ?> map = (Map<?, ?>) value;
+            writeLength(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof List) {
+            out.writeByte(LIST);
+            writeValues(out, (List<?>) value);
+        } else if (value instanceof Set) {
+            out.writeByte(SET);
+            writeValues(out, (Set<?>) value);
+        } else if (value.getClass() == SimpleGrantedAuthority.class) {
+            out.writeByte(GRANTED_AUTHORITY);
+            writeString(out, ((SimpleGrantedAuthority) value).getAuthority());
+        } else if (value.getClass() == IxorTalkPrincipal.class) {
+            out.writeByte(IXORTALK_PRINCIPAL);
+            writeIxorTalkPrincipal(out, (IxorTalkPrincipal) value);
+        } else if (value.getClass() == UserDetails.class) {
+            out.writeByte(USER_DETAILS);
+            writeUserProfile(out, ((UserDetails) value).getUserProfile());
+        } else if (value.getClass() == OAuth2Authentication.class) {
+            out.writeByte(OAUTH2_AUTHENTICATION);
+            writeOAuth2Authentication(out, (OAuth2Authentication) value);
+        } else if (value.getClass() == UsernamePasswordAuthenticationToken.class) {
+            out.writeByte(USERNAME_PASSWORD_AUTHENTICATION);
+            writeAuthenticationToken(out, (AbstractAuthenticationToken) value);
+        } else if (value.getClass() == PreAuthenticatedAuthenticationToken.class) {
+            out.writeByte(PRE_AUTHENTICATED_AUTHENTICATION);
+            writeAuthenticationToken(out, (AbstractAuthenticationToken) value);
+        } else {
+            out.writeByte(JAVA_SERIALIZED);
+            writeBytes(out, SerializationUtils.serialize(value));
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case BOOLEAN:
+                return in.readBoolean();
+            case DATE:
+                return new Date(in.readLong());
+            case MAP:
+                int size = readLength(in);
+                Map<Object, Object> map = new LinkedHashMap<>(size * 2);
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map;
+            case LIST:
+                return readValues(in, new ArrayList<>());
+            case SET:
+                return readValues(in, new LinkedHashSet<>());
+            case GRANTED_AUTHORITY:
+                return grantedAuthority(readString(in));
+            case IXORTALK_PRINCIPAL:
+                return readIxorTalkPrincipal(in);
+            case USER_DETAILS:
+                return new UserDetails(readUserProfile(in));
+            case OAUTH2_AUTHENTICATION:
+                return readOAuth2Authentication(in);
+            case USERNAME_PASSWORD_AUTHENTICATION:
+                return readUsernamePasswordAuthenticationToken(in);
+            case PRE_AUTHENTICATED_AUTHENTICATION:
+                return readPreAuthenticatedAuthenticationToken(in);
+            case JAVA_SERIALIZED:
+                return SerializationUtils.deserialize(readBytes(in));
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    private static void writeIxorTalkPrincipal(DataOutputStream out, IxorTalkPrincipal principal) throws IOException {
+        writeString(out, principal.getLoginProvider() == null ? null : principal.getLoginProvider().name());
+        writeString(out, principal.getName());
+        writeString(out, principal.getEmail());
+        writeString(out, principal.getFirstName());
+        writeString(out, principal.getLastName());
+        writeString(out, principal.getProfilePictureUrl());
+        writeValue(out, principal.getUserInfo());
+    }
+
+    private static IxorTalkPrincipal readIxorTalkPrincipal(DataInputStream in) throws IOException {
+        return new IxorTalkPrincipal(readLoginProvider(in), readString(in), readString(in), readString(in), readString(in), readString(in), readValue(in));
+    }
+
+    private static void writeUserProfile(DataOutputStream out, UserProfile userProfile) throws IOException {
+        writeString(out, userProfile.getName());
+        writeString(out, userProfile.getEmail());
+        writeString(out, userProfile.getFirstName());
+        writeString(out, userProfile.getLastName());
+        writeString(out, userProfile.getProfilePictureUrl());
+        writeStrings(out, userProfile.getAuthorities().stream().map(Authority::getAuthority).collect(toSet()));
+        writeString(out, userProfile.getLoginProvider() == null ? null : userProfile.getLoginProvider().name());
+    }
+
+    private static UserProfile readUserProfile(DataInputStream in) throws IOException {
+        String name = readString(in);
+        String email = readString(in);
+        String firstName = readString(in);
+        String lastName = readString(in);
+        String profilePictureUrl = readString(in);
+        Set<Authority> authorities = readStrings(in, new LinkedHashSet<>()).stream().map(Authority::authority).collect(toSet());
+        return new UserProfile(name, email, firstName, lastName, profilePictureUrl, authorities, readLoginProvider(in));
+    }
+
+    private static LoginProvider readLoginProvider(DataInputStream in) throws IOException {
+        String loginProvider = readString(in);
+        return loginProvider == null ? null : LoginProvider.valueOf(loginProvider);
+    }
+
+    private static void writeAuthenticationToken(DataOutputStream out, AbstractAuthenticationToken token) throws IOException {
+        writeValue(out, token.getPrincipal());
+        writeValue(out, token.getCredentials());
+        writeAuthorities(out, token.getAuthorities());
+        out.writeBoolean(token.isAuthenticated());
+        writeValue(out, token.getDetails());
+    }
+
+    private static UsernamePasswordAuthenticationToken readUsernamePasswordAuthenticationToken(DataInputStream in) throws IOException {
+        Object principal = readValue(in);
+        Object credentials = readValue(in);
+        List<GrantedAuthority> authorities = readAuthorities(in);
+        UsernamePasswordAuthenticationToken token = in.readBoolean() ?
+                new UsernamePasswordAuthenticationToken(principal, credentials, authorities) :
+                new UsernamePasswordAuthenticationToken(principal, credentials);
+        token.setDetails(readValue(in));
+        return token;
+    }
+
+    private static PreAuthenticatedAuthenticationToken readPreAuthenticatedAuthenticationToken(DataInputStream in) throws IOException {
+        Object principal = readValue(in);
+        Object credentials = readValue(in);
+        List<GrantedAuthority> authorities = readAuthorities(in);
+        PreAuthenticatedAuthenticationToken token = in.readBoolean() ?
+                new PreAuthenticatedAuthenticationToken(principal, credentials, authorities) :
+                new PreAuthenticatedAuthenticationToken(principal, credentials);
+        token.setDetails(readValue(in));
+        return token;
+    }
+
+    private static void writeAuthorities(DataOutputStream out, Collection<? extends GrantedAuthority> authorities) throws IOException {
+        writeValues(out, authorities);
+    }
+
+    private static List<GrantedAuthority> readAuthorities(DataInputStream in) throws IOException {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        int size = readLength(in);
+        for (int i = 0; i < size; i++) {
+            authorities.add((GrantedAuthority) readValue(in));
+        }
+        return authorities;
+    }
+
+    private static void writeValues(DataOutputStream out, Collection<?> values) throws IOException {
+        writeLength(out, values.size());
+        for (Object value : values) {
+            writeValue(out, value);
+        }
+    }
+
+    private static <C extends Collection<Object>> C readValues(DataInputStream in, C values) throws IOException {
+        int size = readLength(in);
+        for (int i = 0; i < size; i++) {
+            values.add(readValue(in));
+        }
+        return values;
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+        if (strings == null) {
+            writeLength(out, 0);
+            return;
+        }
+        writeLength(out, strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    private static <C extends Collection<String>> C readStrings(DataInputStream in, C strings) throws IOException {
+        int size = readLength(in);
+        for (int i = 0; i < size; i++) {
+            strings.add(readString(in));
+        }
+        return strings;
+    }
+
+    private static void writeDate(DataOutputStream out, Date date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.getTime());
+        }
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new Date(in.readLong()) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            writeLength(out, 0);
+            return;
+        }
+        byte[] bytes = string.getBytes(UTF_8);
+        writeLength(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readLength(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeLength(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeLength(DataOutputStream out, int length) throws IOException {
+        int remaining = length;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return length;
+            }
+        }
+        throw new IOException("Malformed length");
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.RemovalNotification;
+import io.prometheus.client.Counter;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static com.google.common.cache.RemovalCause.REPLACED;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class CachingTokenStore extends DelegatingTokenStore {
+
+    private static final Counter CACHE_REQUESTS =
+            Counter.build()
+                    .name("token_store_cache_requests_total")
+                    .help("Token store cache lookups by token store, cached type and result.")
+                    .labelNames("token_store", "type", "result")
+                    .register();
+
+    private static final String ACCESS_TOKEN = "access_token";
+    private static final String AUTHENTICATION = "authentication";
+
+    private final String name;
+
+    private final Cache<String, CachedToken> cachedTokens;
+
+    private final Map<String, Set<String>> tokenValuesByRefreshToken = new HashMap<>();
+
+    public CachingTokenStore(String name, TokenStore delegate, long maximumSize, long ttlInSeconds) {
+        super(delegate);
+        this.name = name;
+        this.cachedTokens = newBuilder().maximumSize(maximumSize).expireAfterWrite(ttlInSeconds, SECONDS).removalListener(this::unindex).build();
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        CachedToken cached = cachedTokens.getIfPresent(tokenValue);
+        if (cached != null && cached.accessToken != null && !cached.accessToken.isExpired()) {
+            record(ACCESS_TOKEN, true);
+            return cached.accessToken;
+        }
+        record(ACCESS_TOKEN, false);
+        invalidate(tokenValue);
+
+        OAuth2AccessToken accessToken = super.readAccessToken(tokenValue);
+        if (accessToken != null && !accessToken.isExpired()) {
+            cache(tokenValue, refreshTokenValue(accessToken), accessToken, null);
+        }
+        return accessToken;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        if (token.isExpired()) {
+            invalidate(token.getValue());
+            return super.readAuthentication(token);
+        }
+        return readAuthentication(token.getValue(), token);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String tokenValue) {
+        return readAuthentication(tokenValue, null);
+    }
+
+    /**
+     * An authentication is only cached when its access token is known, so it can be found again through its refresh token.
+     */
+    private OAuth2Authentication readAuthentication(String tokenValue, OAuth2AccessToken token) {
+        CachedToken cached = cachedTokens.getIfPresent(tokenValue);
+        if (cached != null && cached.authentication != null && (cached.accessToken == null || !cached.accessToken.isExpired())) {
+            record(AUTHENTICATION, true);
+            return cached.authentication;
+        }
+        record(AUTHENTICATION, false);
+
+        OAuth2Authentication authentication = super.readAuthentication(tokenValue);
+        OAuth2AccessToken knownToken = token != null ? token : cached != null ? cached.accessToken : null;
+        if (authentication != null && knownToken != null) {
+            cache(tokenValue, refreshTokenValue(knownToken), null, authentication);
+        }
+        return authentication;
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        super.storeAccessToken(token, authentication);
+        invalidate(token.getValue());
+        cache(token.getValue(), refreshTokenValue(token), token, authentication);
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        super.removeAccessToken(token);
+        invalidate(token.getValue());
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        super.removeAccessTokenUsingRefreshToken(refreshToken);
+        Set<String> tokenValues;
+        synchronized (tokenValuesByRefreshToken) {
+            tokenValues = tokenValuesByRefreshToken.getOrDefault(refreshToken.getValue(), emptySet());
+            tokenValuesByRefreshToken.remove(refreshToken.getValue());
+        }
+        tokenValues.forEach(this::invalidate);
+    }
+
+    private void cache(String tokenValue, String refreshTokenValue, OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        cachedTokens.asMap().merge(tokenValue, new CachedToken(refreshTokenValue, accessToken, authentication), CachedToken::update);
+        if (refreshTokenValue != null) {
+            synchronized (tokenValuesByRefreshToken) {
+                tokenValuesByRefreshToken.computeIfAbsent(refreshTokenValue, key -> new HashSet<>()).add(tokenValue);
+            }
+        }
+    }
+
+    /**
+     * Runs after the entry left the cache. The index entry is kept when the token was cached again in the meantime, since
+     * {@link #cache} only indexes after writing the cache entry.
+     */
+    private void unindex(RemovalNotification<String, CachedToken> notification) {
+        if (notification.getCause() == REPLACED || notification.getValue() == null || notification.getValue().refreshTokenValue == null) {
+            return;
+        }
+        synchronized (tokenValuesByRefreshToken) {
+            if (cachedTokens.getIfPresent(notification.getKey()) != null) {
+                return;
+            }
+            Set<String> tokenValues = tokenValuesByRefreshToken.get(notification.getValue().refreshTokenValue);
+            if (tokenValues != null) {
+                tokenValues.remove(notification.getKey());
+                if (tokenValues.isEmpty()) {
+                    tokenValuesByRefreshToken.remove(notification.getValue().refreshTokenValue);
+                }
+            }
+        }
+    }
+
+    private void invalidate(String tokenValue) {
+        cachedTokens.invalidate(tokenValue);
+    }
+
+    private void record(String type, boolean hit) {
+        CACHE_REQUESTS.labels(name, type, hit ? "hit" : "miss").inc();
+    }
+
+    private static String refreshTokenValue(OAuth2AccessToken accessToken) {
+        return accessToken.getRefreshToken() == null ? null : accessToken.getRefreshToken().getValue();
+    }
+
+    private static class CachedToken {
+
+        private final String refreshTokenValue;
+        private final OAuth2AccessToken accessToken;
+        private final OAuth2Authentication authentication;
+
+        private CachedToken(String refreshTokenValue, OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+            this.refreshTokenValue = refreshTokenValue;
+            this.accessToken = accessToken;
+            this.authentication = authentication;
+        }
+
+        private static CachedToken update(CachedToken cached, CachedToken update) {
+            return new CachedToken(
+                    update.refreshTokenValue != null ? update.refreshTokenValue : cached.refreshTokenValue,
+                    update.accessToken != null ? update.accessToken : cached.accessToken,
+                    update.authentication != null ? update.authentication : cached.authentication);
+        }
+    }
+}
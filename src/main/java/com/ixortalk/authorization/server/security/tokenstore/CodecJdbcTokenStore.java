@@ -0,0 +1,292 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import io.prometheus.client.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.support.SqlLobValue;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.store.JdbcTokenStore;
+
+import javax.sql.DataSource;
+import java.sql.Types;
+import java.util.Date;
+import java.util.List;
+
+import static com.google.common.collect.Lists.asList;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class CodecJdbcTokenStore extends JdbcTokenStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CodecJdbcTokenStore.class);
+
+    private static final Histogram PAYLOAD_SIZE =
+            Histogram.build()
+                    .name("token_store_payload_bytes")
+                    .help("Size of serialized token store payloads, by token store, payload type and direction.")
+                    .labelNames("token_store", "type", "direction")
+                    .exponentialBuckets(128, 2, 10)
+                    .register();
+
+    static final String ACCESS_TOKEN = "access_token";
+    static final String REFRESH_TOKEN = "refresh_token";
+    static final String AUTHENTICATION = "authentication";
+
+    public static final Date NO_EXPIRATION = new Date(253402214400000L);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenCodec codec;
+    private final List<TokenCodec> codecs;
+    private final ThreadLocal<Boolean> legacyRead = ThreadLocal.withInitial(() -> false);
+
+    private AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+
+    private String insertAccessTokenSql = "insert into oauth_access_token (token_id, token, authentication_id, user_name, client_id, authentication, refresh_token, expiration) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private String insertRefreshTokenSql = "insert into oauth_refresh_token (token_id, token, authentication, expiration) values (?, ?, ?, ?)";
+    private String updateAccessTokenSql = "update oauth_access_token set token = ? where token_id = ?";
+    private String updateAccessTokenAuthenticationSql = "update oauth_access_token set authentication = ? where token_id = ?";
+    private String updateRefreshTokenSql = "update oauth_refresh_token set token = ? where token_id = ?";
+    private String updateRefreshTokenAuthenticationSql = "update oauth_refresh_token set authentication = ? where token_id = ?";
+
+    private long refreshableRetentionInSeconds = 0;
+
+    private String name = "tokenStore";
+
+    public CodecJdbcTokenStore(DataSource dataSource, TokenCodec codec, TokenCodec... legacyCodecs) {
+        super(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.codec = codec;
+        this.codecs = asList(codec, legacyCodecs);
+    }
+
+    public TokenCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        String refreshToken = token.getRefreshToken() == null ? null : token.getRefreshToken().getValue();
+
+        if (readAccessToken(token.getValue()) != null) {
+            removeAccessToken(token.getValue());
+        }
+
+        jdbcTemplate.update(
+                insertAccessTokenSql,
+                new Object[]{
+                        extractTokenKey(token.getValue()),
+                        new SqlLobValue(serializeAccessToken(token)),
+                        authenticationKeyGenerator.extractKey(authentication),
+                        authentication.isClientOnly() ? null : authentication.getName(),
+                        authentication.getOAuth2Request().getClientId(),
+                        new SqlLobValue(serializeAuthentication(authentication)),
+                        extractTokenKey(refreshToken),
+                        purgeableAfter(token)},
+                new int[]{Types.VARCHAR, Types.BLOB, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BLOB, Types.VARCHAR, Types.TIMESTAMP});
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        jdbcTemplate.update(
+                insertRefreshTokenSql,
+                new Object[]{
+                        extractTokenKey(refreshToken.getValue()),
+                        new SqlLobValue(serializeRefreshToken(refreshToken)),
+                        new SqlLobValue(serializeAuthentication(authentication)),
+                        purgeableAfter(refreshToken)},
+                new int[]{Types.VARCHAR, Types.BLOB, Types.BLOB, Types.TIMESTAMP});
+    }
+
+    public Date purgeableAfter(OAuth2AccessToken accessToken) {
+        Date expiration = ofNullable(accessToken.getExpiration()).orElse(NO_EXPIRATION);
+        if (refreshableRetentionInSeconds <= 0 || accessToken.getRefreshToken() == null) {
+            return expiration;
+        }
+        Date refreshable = accessToken.getRefreshToken() instanceof ExpiringOAuth2RefreshToken ?
+                ((ExpiringOAuth2RefreshToken) accessToken.getRefreshToken()).getExpiration() :
+                new Date(expiration.getTime() + SECONDS.toMillis(refreshableRetentionInSeconds));
+        return refreshable.after(expiration) ? refreshable : expiration;
+    }
+
+    public Date purgeableAfter(OAuth2RefreshToken refreshToken) {
+        return refreshToken instanceof ExpiringOAuth2RefreshToken ? ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration() : NO_EXPIRATION;
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        legacyRead.set(false);
+        OAuth2AccessToken accessToken = super.readAccessToken(tokenValue);
+        if (accessToken != null && consumeLegacyRead()) {
+            rewrite(updateAccessTokenSql, codec.encodeAccessToken(accessToken), tokenValue);
+        }
+        return accessToken;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        legacyRead.set(false);
+        OAuth2Authentication authentication = super.readAuthentication(token);
+        if (authentication != null && consumeLegacyRead()) {
+            rewrite(updateAccessTokenAuthenticationSql, codec.encodeAuthentication(authentication), token);
+        }
+        return authentication;
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String token) {
+        legacyRead.set(false);
+        OAuth2RefreshToken refreshToken = super.readRefreshToken(token);
+        if (refreshToken != null && consumeLegacyRead()) {
+            rewrite(updateRefreshTokenSql, codec.encodeRefreshToken(refreshToken), token);
+        }
+        return refreshToken;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(String value) {
+        legacyRead.set(false);
+        OAuth2Authentication authentication = super.readAuthenticationForRefreshToken(value);
+        if (authentication != null && consumeLegacyRead()) {
+            rewrite(updateRefreshTokenAuthenticationSql, codec.encodeAuthentication(authentication), value);
+        }
+        return authentication;
+    }
+
+    @Override
+    protected byte[] serializeAccessToken(OAuth2AccessToken token) {
+        return written(ACCESS_TOKEN, codec.encodeAccessToken(token));
+    }
+
+    @Override
+    protected byte[] serializeRefreshToken(OAuth2RefreshToken token) {
+        return written(REFRESH_TOKEN, codec.encodeRefreshToken(token));
+    }
+
+    @Override
+    protected byte[] serializeAuthentication(OAuth2Authentication authentication) {
+        return written(AUTHENTICATION, codec.encodeAuthentication(authentication));
+    }
+
+    @Override
+    protected OAuth2AccessToken deserializeAccessToken(byte[] token) {
+        return codecFor(read(ACCESS_TOKEN, token)).decodeAccessToken(token);
+    }
+
+    @Override
+    protected OAuth2RefreshToken deserializeRefreshToken(byte[] token) {
+        return codecFor(read(REFRESH_TOKEN, token)).decodeRefreshToken(token);
+    }
+
+    @Override
+    protected OAuth2Authentication deserializeAuthentication(byte[] authentication) {
+        return codecFor(read(AUTHENTICATION, authentication)).decodeAuthentication(authentication);
+    }
+
+    private byte[] written(String type, byte[] payload) {
+        PAYLOAD_SIZE.labels(name, type, "write").observe(payload.length);
+        return payload;
+    }
+
+    private byte[] read(String type, byte[] payload) {
+        PAYLOAD_SIZE.labels(name, type, "read").observe(payload.length);
+        return payload;
+    }
+
+    private TokenCodec codecFor(byte[] bytes) {
+        for (TokenCodec candidate : codecs) {
+            if (candidate.canDecode(bytes)) {
+                if (candidate != codec) {
+                    legacyRead.set(true);
+                }
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("No token codec found for stored token");
+    }
+
+    private boolean consumeLegacyRead() {
+        boolean legacy = legacyRead.get();
+        legacyRead.set(false);
+        return legacy;
+    }
+
+    private void rewrite(String sql, byte[] encoded, String value) {
+        try {
+            jdbcTemplate.update(sql, encoded, extractTokenKey(value));
+        } catch (DataAccessException e) {
+            LOGGER.warn("Could not rewrite legacy token row: " + e.getMessage());
+        }
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void setAuthenticationKeyGenerator(AuthenticationKeyGenerator authenticationKeyGenerator) {
+        super.setAuthenticationKeyGenerator(authenticationKeyGenerator);
+        this.authenticationKeyGenerator = authenticationKeyGenerator;
+    }
+
+    @Override
+    public void setInsertAccessTokenSql(String insertAccessTokenSql) {
+        super.setInsertAccessTokenSql(insertAccessTokenSql);
+        this.insertAccessTokenSql = insertAccessTokenSql;
+    }
+
+    @Override
+    public void setInsertRefreshTokenSql(String insertRefreshTokenSql) {
+        super.setInsertRefreshTokenSql(insertRefreshTokenSql);
+        this.insertRefreshTokenSql = insertRefreshTokenSql;
+    }
+
+    public void setRefreshableRetentionInSeconds(long refreshableRetentionInSeconds) {
+        this.refreshableRetentionInSeconds = refreshableRetentionInSeconds;
+    }
+
+    public void setUpdateAccessTokenSql(String updateAccessTokenSql) {
+        this.updateAccessTokenSql = updateAccessTokenSql;
+    }
+
+    public void setUpdateAccessTokenAuthenticationSql(String updateAccessTokenAuthenticationSql) {
+        this.updateAccessTokenAuthenticationSql = updateAccessTokenAuthenticationSql;
+    }
+
+    public void setUpdateRefreshTokenSql(String updateRefreshTokenSql) {
+        this.updateRefreshTokenSql = updateRefreshTokenSql;
+    }
+
+    public void setUpdateRefreshTokenAuthenticationSql(String updateRefreshTokenAuthenticationSql) {
+        this.updateRefreshTokenAuthenticationSql = updateRefreshTokenAuthenticationSql;
+    }
+}
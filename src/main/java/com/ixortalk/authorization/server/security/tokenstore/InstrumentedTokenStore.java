@@ -0,0 +1,167 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class InstrumentedTokenStore extends DelegatingTokenStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstrumentedTokenStore.class);
+
+    private static final Histogram OPERATION_DURATION =
+            Histogram.build()
+                    .name("token_store_operation_duration_seconds")
+                    .help("Duration of token store operations, by token store and operation.")
+                    .labelNames("token_store", "operation")
+                    .buckets(.0005, .001, .0025, .005, .01, .025, .05, .1, .25, .5, 1)
+                    .register();
+
+    private static final Counter OPERATION_ROWS =
+            Counter.build()
+                    .name("token_store_operation_rows_total")
+                    .help("Tokens and authentications returned by token store read operations, by token store and operation.")
+                    .labelNames("token_store", "operation")
+                    .register();
+
+    private final String name;
+    private final long slowOperationThresholdInMillis;
+
+    public InstrumentedTokenStore(String name, TokenStore delegate, long slowOperationThresholdInMillis) {
+        super(delegate);
+        this.name = name;
+        this.slowOperationThresholdInMillis = slowOperationThresholdInMillis;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return record("readAuthentication", () -> super.readAuthentication(token));
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        return record("readAuthentication", () -> super.readAuthentication(token));
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        record("storeAccessToken", () -> super.storeAccessToken(token, authentication));
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        return record("readAccessToken", () -> super.readAccessToken(tokenValue));
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        record("removeAccessToken", () -> super.removeAccessToken(token));
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        record("storeRefreshToken", () -> super.storeRefreshToken(refreshToken, authentication));
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        return record("readRefreshToken", () -> super.readRefreshToken(tokenValue));
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        return record("readAuthenticationForRefreshToken", () -> super.readAuthenticationForRefreshToken(token));
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        record("removeRefreshToken", () -> super.removeRefreshToken(token));
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        record("removeAccessTokenUsingRefreshToken", () -> super.removeAccessTokenUsingRefreshToken(refreshToken));
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        return record("getAccessToken", () -> super.getAccessToken(authentication));
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+        return record("findTokensByClientIdAndUserName", () -> super.findTokensByClientIdAndUserName(clientId, userName));
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        return record("findTokensByClientId", () -> super.findTokensByClientId(clientId));
+    }
+
+    private void record(String operation, Runnable call) {
+        time(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private <T> T record(String operation, Supplier<T> call) {
+        T result = time(operation, call);
+        OPERATION_ROWS.labels(name, operation).inc(rows(result));
+        return result;
+    }
+
+    private <T> T time(String operation, Supplier<T> call) {
+        long start = nanoTime();
+        try {
+            return call.get();
+        } finally {
+            long durationInNanos = nanoTime() - start;
+            OPERATION_DURATION.labels(name, operation).observe(durationInNanos / (double) SECONDS.toNanos(1));
+            if (slowOperationThresholdInMillis > 0 && NANOSECONDS.toMillis(durationInNanos) >= slowOperationThresholdInMillis) {
+                LOGGER.warn("Slow token store operation {}.{} took {} ms", name, operation, NANOSECONDS.toMillis(durationInNanos));
+            }
+        }
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        return result == null ? 0 : 1;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.util.SerializationUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+public class JavaSerializationTokenCodec implements TokenCodec {
+
+    private static final byte[] STREAM_MAGIC = {(byte) 0xAC, (byte) 0xED};
+
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        return bytes != null && bytes.length >= 2 && bytes[0] == STREAM_MAGIC[0] && bytes[1] == STREAM_MAGIC[1];
+    }
+
+    @Override
+    public byte[] encodeAccessToken(OAuth2AccessToken accessToken) {
+        return SerializationUtils.serialize(accessToken);
+    }
+
+    @Override
+    public OAuth2AccessToken decodeAccessToken(byte[] bytes) {
+        return SerializationUtils.deserialize(bytes);
+    }
+
+    @Override
+    public byte[] encodeRefreshToken(OAuth2RefreshToken refreshToken) {
+        return SerializationUtils.serialize(refreshToken);
+    }
+
+    @Override
+    public OAuth2RefreshToken decodeRefreshToken(byte[] bytes) {
+        return SerializationUtils.deserialize(bytes);
+    }
+
+    @Override
+    public byte[] encodeAuthentication(OAuth2Authentication authentication) {
+        return SerializationUtils.serialize(authentication);
+    }
+
+    @Override
+    public OAuth2Authentication decodeAuthentication(byte[] bytes) {
+        return SerializationUtils.deserialize(bytes);
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import com.google.common.base.Supplier;
+import io.prometheus.client.Collector;
+import io.prometheus.client.GaugeMetricFamily;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Suppliers.memoizeWithExpiration;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class LiveAccessTokens {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiveAccessTokens.class);
+
+    private static final Map<String, Supplier<Long>> TOKEN_STORES = new ConcurrentHashMap<>();
+
+    static {
+        new LiveAccessTokensCollector().register();
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long refreshIntervalInSeconds;
+
+    public LiveAccessTokens(DataSource dataSource, long refreshIntervalInSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.refreshIntervalInSeconds = refreshIntervalInSeconds;
+    }
+
+    public LiveAccessTokens count(String tokenStore, String accessTokenTable) {
+        String sql = "select count(*) from " + accessTokenTable + " where expiration is null or expiration > ?";
+        Supplier<Long> count = () -> jdbcTemplate.queryForObject(sql, Long.class, new Date());
+        TOKEN_STORES.put(tokenStore, refreshIntervalInSeconds > 0 ? memoizeWithExpiration(count, refreshIntervalInSeconds, SECONDS) : count);
+        return this;
+    }
+
+    private static class LiveAccessTokensCollector extends Collector {
+
+        @Override
+        public List<MetricFamilySamples> collect() {
+            GaugeMetricFamily liveAccessTokens = new GaugeMetricFamily("oauth2_live_access_tokens", "Stored access tokens that are not yet purgeable, by token store.", singletonList("token_store"));
+            TOKEN_STORES.forEach((tokenStore, count) -> {
+                try {
+                    liveAccessTokens.addMetric(singletonList(tokenStore), count.get());
+                } catch (DataAccessException e) {
+                    LOGGER.warn("Could not count live access tokens for " + tokenStore + ": " + e.getMessage());
+                }
+            });
+            return singletonList(liveAccessTokens);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.System.currentTimeMillis;
+import static java.util.stream.Collectors.toList;
+
+public class TokenPurger {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenPurger.class);
+
+    private static final Counter PURGED_ROWS =
+            Counter.build()
+                    .name("token_purge_rows_total")
+                    .help("Expired token rows deleted by the token purger, by table.")
+                    .labelNames("table")
+                    .register();
+
+    private static final Histogram PURGE_DURATION =
+            Histogram.build()
+                    .name("token_purge_duration_seconds")
+                    .help("Duration of a token purge run.")
+                    .register();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseBetweenBatchesInMillis;
+    private final String lockClause;
+    private final List<TokenTable> tokenTables = newArrayList();
+
+    public TokenPurger(DataSource dataSource, PlatformTransactionManager transactionManager, int batchSize, int maxBatchesPerRun, long pauseBetweenBatchesInMillis, String lockClause) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseBetweenBatchesInMillis = pauseBetweenBatchesInMillis;
+        this.lockClause = lockClause;
+    }
+
+    public TokenPurger purge(String accessTokenTable, String refreshTokenTable, CodecJdbcTokenStore tokenStore) {
+        tokenTables.add(new TokenTable(accessTokenTable, token -> tokenStore.purgeableAfter(tokenStore.deserializeAccessToken(token))));
+        tokenTables.add(new TokenTable(refreshTokenTable, token -> tokenStore.purgeableAfter(tokenStore.deserializeRefreshToken(token))));
+        return this;
+    }
+
+    @Scheduled(
+            initialDelayString = "${ixortalk.security.token-purge.interval-in-millis:300000}",
+            fixedDelayString = "${ixortalk.security.token-purge.interval-in-millis:300000}")
+    public void run() {
+        Histogram.Timer timer = PURGE_DURATION.startTimer();
+        try {
+            for (TokenTable tokenTable : tokenTables) {
+                purge(tokenTable);
+            }
+        } catch (DataAccessException e) {
+            LOGGER.warn("Token purge failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            timer.observeDuration();
+        }
+    }
+
+    private void purge(TokenTable tokenTable) throws InterruptedException {
+        for (int batch = 0; batch < maxBatchesPerRun && backfillExpiration(tokenTable) == batchSize; batch++) {
+            pause();
+        }
+        int purged;
+        for (int batch = 0; batch < maxBatchesPerRun && (purged = deleteExpired(tokenTable)) > 0; batch++) {
+            PURGED_ROWS.labels(tokenTable.name).inc(purged);
+            if (purged < batchSize) {
+                break;
+            }
+            pause();
+        }
+    }
+
+    private int backfillExpiration(TokenTable tokenTable) {
+        return transactionTemplate.execute(status -> {
+            List<Object[]> expirations = jdbcTemplate.query(
+                    "select token_id, token from " + tokenTable.name + " where expiration is null limit ? " + lockClause,
+                    (resultSet, rowNum) -> new Object[]{expirationOf(tokenTable, resultSet.getBytes("token")), resultSet.getString("token_id")},
+                    batchSize);
+            jdbcTemplate.batchUpdate("update " + tokenTable.name + " set expiration = ? where token_id = ?", expirations);
+            return expirations.size();
+        });
+    }
+
+    private int deleteExpired(TokenTable tokenTable) {
+        return transactionTemplate.execute(status -> {
+            List<Object[]> tokenIds =
+                    jdbcTemplate.queryForList(
+                            "select token_id from " + tokenTable.name + " where expiration < ? limit ? " + lockClause,
+                            String.class,
+                            new Date(), batchSize)
+                            .stream()
+                            .map(tokenId -> new Object[]{tokenId})
+                            .collect(toList());
+            jdbcTemplate.batchUpdate("delete from " + tokenTable.name + " where token_id = ?", tokenIds);
+            return tokenIds.size();
+        });
+    }
+
+    private static Date expirationOf(TokenTable tokenTable, byte[] token) {
+        try {
+            return tokenTable.expirationOf.apply(token);
+        } catch (IllegalArgumentException e) {
+            return new Date(currentTimeMillis());
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        if (pauseBetweenBatchesInMillis > 0) {
+            Thread.sleep(pauseBetweenBatchesInMillis);
+        }
+    }
+
+    private static class TokenTable {
+
+        private final String name;
+        private final Function<byte[], Date> expirationOf;
+
+        private TokenTable(String name, Function<byte[], Date> expirationOf) {
+            this.name = name;
+            this.expirationOf = expirationOf;
+        }
+    }
+}
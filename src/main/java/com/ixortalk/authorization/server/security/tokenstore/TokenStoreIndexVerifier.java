@@ -0,0 +1,151 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JdbcTokenStore;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Arrays.asList;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+public class TokenStoreIndexVerifier implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenStoreIndexVerifier.class);
+
+    private static final List<String> LOOKUP_SQL_PROPERTIES = asList(
+            "selectAccessTokenSql",
+            "selectAccessTokenAuthenticationSql",
+            "selectAccessTokenFromAuthenticationSql",
+            "selectAccessTokensFromUserNameAndClientIdSql",
+            "selectAccessTokensFromUserNameSql",
+            "selectAccessTokensFromClientIdSql",
+            "deleteAccessTokenSql",
+            "deleteAccessTokenFromRefreshTokenSql",
+            "selectRefreshTokenSql",
+            "selectRefreshTokenAuthenticationSql",
+            "deleteRefreshTokenSql");
+
+    private static final Pattern LOOKUP_SQL_PATTERN = Pattern.compile("\\bfrom\\s+(\\w+)\\s+where\\s+(.+)$", CASE_INSENSITIVE);
+    private static final Pattern WHERE_COLUMN_PATTERN = Pattern.compile("(\\w+)\\s*=\\s*\\?");
+
+    private final DataSource dataSource;
+
+    private final List<TokenStore> tokenStores;
+
+    public TokenStoreIndexVerifier(DataSource dataSource, TokenStore... tokenStores) {
+        this.dataSource = dataSource;
+        this.tokenStores = asList(tokenStores);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            findUnindexedLookups().forEach(lookupSql -> LOGGER.warn("No index found supporting token store lookup, this query will do a full table scan: " + lookupSql));
+        } catch (SQLException e) {
+            LOGGER.warn("Unable to verify token store indexes: " + e.getMessage(), e);
+        }
+    }
+
+    public List<String> findUnindexedLookups() throws SQLException {
+        List<String> unindexedLookups = newArrayList();
+        Map<String, Set<String>> leadingIndexColumnsByTable = newHashMap();
+
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (TokenStore tokenStore : tokenStores) {
+                TokenStore unwrappedTokenStore = DelegatingTokenStore.unwrap(tokenStore);
+                if (!(unwrappedTokenStore instanceof JdbcTokenStore)) {
+                    continue;
+                }
+                DirectFieldAccessor tokenStoreAccessor = new DirectFieldAccessor(unwrappedTokenStore);
+                for (String lookupSqlProperty : LOOKUP_SQL_PROPERTIES) {
+                    String lookupSql = (String) tokenStoreAccessor.getPropertyValue(lookupSqlProperty);
+                    Matcher lookupSqlMatcher = LOOKUP_SQL_PATTERN.matcher(lookupSql.trim());
+                    if (!lookupSqlMatcher.find()) {
+                        continue;
+                    }
+                    String table = lookupSqlMatcher.group(1).toLowerCase();
+                    Set<String> whereColumns = whereColumns(lookupSqlMatcher.group(2));
+                    Set<String> leadingIndexColumns = leadingIndexColumnsByTable.computeIfAbsent(table, t -> leadingIndexColumns(metaData, connection, t));
+                    if (whereColumns.stream().noneMatch(leadingIndexColumns::contains)) {
+                        unindexedLookups.add(lookupSql);
+                    }
+                }
+            }
+        }
+        return unindexedLookups;
+    }
+
+    private static Set<String> whereColumns(String whereClause) {
+        Set<String> whereColumns = newHashSet();
+        Matcher whereColumnMatcher = WHERE_COLUMN_PATTERN.matcher(whereClause);
+        while (whereColumnMatcher.find()) {
+            whereColumns.add(whereColumnMatcher.group(1).toLowerCase());
+        }
+        return whereColumns;
+    }
+
+    private static Set<String> leadingIndexColumns(DatabaseMetaData metaData, Connection connection, String table) {
+        Set<String> leadingIndexColumns = newHashSet();
+        try (ResultSet indexInfo = metaData.getIndexInfo(connection.getCatalog(), null, toStoredIdentifier(metaData, table), false, true)) {
+            while (indexInfo.next()) {
+                if (indexInfo.getShort("ORDINAL_POSITION") == 1 && indexInfo.getString("COLUMN_NAME") != null) {
+                    leadingIndexColumns.add(indexInfo.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Unable to read index metadata for " + table + ": " + e.getMessage(), e);
+        }
+        return leadingIndexColumns;
+    }
+
+    private static String toStoredIdentifier(DatabaseMetaData metaData, String identifier) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return identifier.toUpperCase();
+        }
+        if (metaData.storesLowerCaseIdentifiers()) {
+            return identifier.toLowerCase();
+        }
+        return identifier;
+    }
+}
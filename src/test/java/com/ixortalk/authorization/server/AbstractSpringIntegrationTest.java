@@ -125,6 +125,7 @@ public abstract class AbstractSpringIntegrationTest {
     private static final String HOST = "ixortalk.com";
     public static final String IXORTALK_THIRD_PARTY_ACCESS_TOKEN = nextString("ixortalk-thirdparty-access-token");
     public static final String IXORTALK_THIRD_PARTY_REFRESH_TOKEN = nextString("ixortalk-thirdparty-refresh-token");
+    public static final String EVENTBRITE_THIRD_PARTY_ACCESS_TOKEN = nextString("eventbrite-thirdparty-access-token");
 
     @Rule
     public JUnitRestDocumentation restDocumentation = new JUnitRestDocumentation("target/generated-snippets");
@@ -225,7 +226,7 @@ public abstract class AbstractSpringIntegrationTest {
         stubThirdPartyOAuth2Login(thirdPartyIxorTalkWireMockRule, createOAuth2AccessToken(IXORTALK_THIRD_PARTY_ACCESS_TOKEN, IXORTALK_THIRD_PARTY_REFRESH_TOKEN));
         stubThirdPartyUserInfo(thirdPartyIxorTalkWireMockRule, thirdPartyPrincipalIxorTalk);
 
-        stubThirdPartyOAuth2Login(thirdPartyEventbriteWireMockRule, createOAuth2AccessToken(nextString("eventbrite-thirdparty-access-token"), nextString("eventbrite-thirdparty-refresh-token")));
+        stubThirdPartyOAuth2Login(thirdPartyEventbriteWireMockRule, createOAuth2AccessToken(EVENTBRITE_THIRD_PARTY_ACCESS_TOKEN, nextString("eventbrite-thirdparty-refresh-token")));
         stubThirdPartyUserInfo(thirdPartyEventbriteWireMockRule, thirdPartyPrincipalEventbrite);
 
         stubThirdPartyOAuth2Login(thirdPartySaltoWireMockRule, createOAuth2AccessToken(nextString("salto-thirdparty-access-token"), nextString("salto-thirdparty-refresh-token")));
@@ -271,6 +272,10 @@ public abstract class AbstractSpringIntegrationTest {
     }
 
     protected Response performOAuth2Login(TestConfigConstants thirdPartyLoginProvider) {
+        return performOAuth2Login(thirdPartyLoginProvider, sessionFilter);
+    }
+
+    protected Response performOAuth2Login(TestConfigConstants thirdPartyLoginProvider, SessionFilter sessionFilter) {
         String location =
                 given()
                         .filter(sessionFilter)
@@ -305,11 +310,15 @@ public abstract class AbstractSpringIntegrationTest {
     }
 
     protected OAuth2AccessToken getAccessTokenWithAuthorizationCode() {
+        return getAccessTokenWithAuthorizationCode(THIRD_PARTY_LOGIN_IXORTALK, sessionFilter);
+    }
+
+    protected OAuth2AccessToken getAccessTokenWithAuthorizationCode(TestConfigConstants thirdPartyLoginProvider, SessionFilter sessionFilter) {
         return given()
                 .filter(sessionFilter)
                 .auth().preemptive().basic(ADMIN_CLIENT_ID.configValue(), ADMIN_CLIENT_SECRET.configValue())
                 .parameters("grant_type", "authorization_code")
-                .parameters("code", getAuthorizationCode(THIRD_PARTY_LOGIN_IXORTALK))
+                .parameters("code", getAuthorizationCode(thirdPartyLoginProvider, sessionFilter))
                 .parameters("redirect_uri", ADMIN_CLIENT_REDIRECT_URI.configValue())
                 .when()
                 .post("/oauth/token")
@@ -319,6 +328,10 @@ public abstract class AbstractSpringIntegrationTest {
     }
 
     protected OAuth2AccessToken getAccessTokenWithRefreshToken(OAuth2RefreshToken refreshToken) {
+        return getAccessTokenWithRefreshToken(refreshToken, sessionFilter);
+    }
+
+    protected OAuth2AccessToken getAccessTokenWithRefreshToken(OAuth2RefreshToken refreshToken, SessionFilter sessionFilter) {
         return given()
                 .filter(sessionFilter)
                 .auth().preemptive().basic(ADMIN_CLIENT_ID.configValue(), ADMIN_CLIENT_SECRET.configValue())
@@ -331,7 +344,7 @@ public abstract class AbstractSpringIntegrationTest {
                 .extract().as(OAuth2AccessToken.class);
     }
 
-    private String getAuthorizationCode(TestConfigConstants thirdPartyLoginProvider) {
+    private String getAuthorizationCode(TestConfigConstants thirdPartyLoginProvider, SessionFilter sessionFilter) {
         given()
                 .filter(sessionFilter)
                 .urlEncodingEnabled(false)
@@ -344,7 +357,7 @@ public abstract class AbstractSpringIntegrationTest {
 
         try {
             return extractAuthorizationCodeFromRedirect(
-                    performOAuth2Login(thirdPartyLoginProvider)
+                    performOAuth2Login(thirdPartyLoginProvider, sessionFilter)
                             .then()
                             .statusCode(MOVED_TEMPORARILY_302)
                             .extract().header(LOCATION));
@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.benchmark;
+
+import com.ixortalk.authorization.server.domain.Authority;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import com.ixortalk.authorization.server.security.UserDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.ixortalk.authorization.server.domain.AuthoritySet.ofAuthorities;
+import static com.ixortalk.authorization.server.domain.AuthoritySet.ofGrantedAuthorities;
+import static com.ixortalk.authorization.server.domain.LoginProvider.IXORTALK;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static java.util.stream.IntStream.range;
+
+/**
+ * Run with the benchmark profile; the GC profiler reports the allocation per operation as gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityBenchmark {
+
+    @Param({"2", "8"})
+    private int authorityCount;
+
+    private UserProfile userProfile;
+    private UserDetails cachedUserDetails;
+    private List<GrantedAuthority> loginAuthorities;
+
+    @Setup
+    public void setUp() {
+        Set<Authority> authorities = range(0, authorityCount).mapToObj(i -> Authority.authority("ROLE_BENCHMARK_" + i)).collect(toSet());
+        userProfile = new UserProfile("name", "email", "first", "last", null, authorities, IXORTALK);
+        cachedUserDetails = new UserDetails(userProfile);
+        loginAuthorities = range(0, authorityCount).mapToObj(i -> new SimpleGrantedAuthority("ROLE_BENCHMARK_" + i)).collect(toList());
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> refreshGrantedAuthoritiesPerCall() {
+        return userProfile.getAuthorities().stream().map(Authority::getAuthority).map(SimpleGrantedAuthority::new).collect(toSet());
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> refreshGrantedAuthoritiesInterned() {
+        return new UserDetails(userProfile).getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> refreshGrantedAuthoritiesCachedUserDetails() {
+        return cachedUserDetails.getAuthorities();
+    }
+
+    @Benchmark
+    public boolean userInfoAuthorityComparisonHashSet() {
+        Set<Authority> authorities = loginAuthorities.stream().map(GrantedAuthority::getAuthority).map(Authority::authority).collect(toSet());
+        return userProfile.hasAuthorities(authorities);
+    }
+
+    @Benchmark
+    public boolean userInfoAuthorityComparisonBitSet() {
+        return ofAuthorities(userProfile.getAuthorities()).equals(ofGrantedAuthorities(loginAuthorities));
+    }
+}
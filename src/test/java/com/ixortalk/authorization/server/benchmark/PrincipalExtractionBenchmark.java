@@ -0,0 +1,115 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.benchmark;
+
+import com.ixortalk.authorization.server.domain.LoginProvider;
+import com.ixortalk.authorization.server.security.IxorTalkPrincipal;
+import com.ixortalk.authorization.server.security.thirdparty.LoginProviderPrincipalExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrincipalExtractionBenchmark {
+
+    @Param
+    private LoginProvider loginProvider;
+
+    private LoginProviderPrincipalExtractor principalExtractor;
+    private Map<String, Object> userInfo;
+
+    @Setup
+    public void setUp() {
+        principalExtractor = new LoginProviderPrincipalExtractor(loginProvider, (principalName, mediaUri) -> mediaUri);
+        userInfo = userInfo(loginProvider);
+    }
+
+    @Benchmark
+    public IxorTalkPrincipal extractPrincipal() {
+        return principalExtractor.extractPrincipal(userInfo);
+    }
+
+    private static Map<String, Object> userInfo(LoginProvider loginProvider) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        switch (loginProvider) {
+            case IXORTALK:
+                Map<String, Object> userInfo = new LinkedHashMap<>();
+                userInfo.put("firstName", "Jane");
+                userInfo.put("lastName", "Doe");
+                userInfo.put("profilePictureUrl", "https://www.ixortalk.com/profile-pictures/jane.doe.png");
+                map.put("name", "jane.doe@ixortalk.com");
+                map.put("authorities", asList(singletonMap("authority", "ROLE_USER"), singletonMap("authority", "ROLE_ADMIN")));
+                map.put("details", singletonMap("remoteAddress", "10.0.0.1"));
+                map.put("authenticated", true);
+                map.put("userInfo", userInfo);
+                break;
+            case EVENTBRITE:
+                Map<String, Object> email = new LinkedHashMap<>();
+                email.put("email", "jane.doe@ixortalk.com");
+                email.put("verified", true);
+                email.put("primary", true);
+                map.put("emails", singletonList(email));
+                map.put("id", "123456789012");
+                map.put("name", "Jane Doe");
+                map.put("first_name", "Jane");
+                map.put("last_name", "Doe");
+                map.put("is_public", false);
+                map.put("image_id", "45678901");
+                break;
+            case SALTO:
+                map.put("id", "6f1c2a1e-7d8b-4a52-9a0e-3c1f6b2d9e44");
+                map.put("email", "jane.doe@ixortalk.com");
+                map.put("email_verified", true);
+                map.put("first_name", "Jane");
+                map.put("last_name", "Doe");
+                map.put("image_url", "https://clay.saltoks.com/images/jane.doe.png");
+                map.put("locale", "nl-BE");
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported login provider " + loginProvider);
+        }
+        return map;
+    }
+}
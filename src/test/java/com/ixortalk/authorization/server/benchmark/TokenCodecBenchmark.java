@@ -0,0 +1,139 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.benchmark;
+
+import com.ixortalk.authorization.server.security.tokenstore.BinaryTokenCodec;
+import com.ixortalk.authorization.server.security.tokenstore.JavaSerializationTokenCodec;
+import com.ixortalk.authorization.server.security.tokenstore.TokenCodec;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aRefreshedAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aThirdPartyAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.anAccessToken;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenCodecBenchmark {
+
+    public enum Codec {
+        JAVA(new JavaSerializationTokenCodec()),
+        BINARY(new BinaryTokenCodec());
+
+        private final TokenCodec tokenCodec;
+
+        Codec(TokenCodec tokenCodec) {
+            this.tokenCodec = tokenCodec;
+        }
+
+        TokenCodec tokenCodec() {
+            return tokenCodec;
+        }
+    }
+
+    public enum Shape {
+        THIRD_PARTY_LOGIN,
+        REFRESHED
+    }
+
+    @Param
+    private Codec codec;
+
+    @Param
+    private Shape shape;
+
+    private TokenCodec tokenCodec;
+    private OAuth2AccessToken accessToken;
+    private OAuth2Authentication authentication;
+    private byte[] encodedAccessToken;
+    private byte[] encodedAuthentication;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RowSize {
+
+        public long rows;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+            bytes = 0;
+        }
+
+        private byte[] record(byte[] encoded) {
+            rows++;
+            bytes += encoded.length;
+            return encoded;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        tokenCodec = codec.tokenCodec;
+        accessToken = anAccessToken();
+        authentication = shape == Shape.REFRESHED ? aRefreshedAuthentication() : aThirdPartyAuthentication();
+        encodedAccessToken = tokenCodec.encodeAccessToken(accessToken);
+        encodedAuthentication = tokenCodec.encodeAuthentication(authentication);
+    }
+
+    @Benchmark
+    public byte[] encodeAccessToken(RowSize rowSize) {
+        return rowSize.record(tokenCodec.encodeAccessToken(accessToken));
+    }
+
+    @Benchmark
+    public OAuth2AccessToken decodeAccessToken() {
+        return tokenCodec.decodeAccessToken(encodedAccessToken);
+    }
+
+    @Benchmark
+    public byte[] encodeAuthentication(RowSize rowSize) {
+        return rowSize.record(tokenCodec.encodeAuthentication(authentication));
+    }
+
+    @Benchmark
+    public OAuth2Authentication decodeAuthentication() {
+        return tokenCodec.decodeAuthentication(encodedAuthentication);
+    }
+}
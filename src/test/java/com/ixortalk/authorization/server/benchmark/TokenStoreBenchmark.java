@@ -0,0 +1,100 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.benchmark;
+
+import com.ixortalk.authorization.server.benchmark.TokenCodecBenchmark.Codec;
+import com.ixortalk.authorization.server.security.tokenstore.CodecJdbcTokenStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.ixortalk.authorization.server.benchmark.BenchmarkDatabase.embeddedPostgreSqlDataSource;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aRefreshedAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.anAccessToken;
+
+/**
+ * Runs against an embedded H2 database in PostgreSQL mode, initialised from the Liquibase change log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenStoreBenchmark {
+
+    private static final int STORED_TOKENS = 1000;
+
+    @Param
+    private Codec codec;
+
+    private CodecJdbcTokenStore tokenStore;
+
+    private OAuth2AccessToken accessToken;
+    private OAuth2Authentication authentication;
+
+    @Setup
+    public void setUp() throws Exception {
+        tokenStore = new CodecJdbcTokenStore(embeddedPostgreSqlDataSource("token-store-benchmark-" + codec), codec.tokenCodec());
+        for (int i = 0; i < STORED_TOKENS; i++) {
+            tokenStore.storeAccessToken(anAccessToken(), aRefreshedAuthentication());
+        }
+
+        accessToken = anAccessToken();
+        authentication = aRefreshedAuthentication();
+        tokenStore.storeAccessToken(accessToken, authentication);
+    }
+
+    @Benchmark
+    public void storeAccessToken() {
+        tokenStore.storeAccessToken(accessToken, authentication);
+    }
+
+    @Benchmark
+    public OAuth2AccessToken readAccessToken() {
+        return tokenStore.readAccessToken(accessToken.getValue());
+    }
+
+    @Benchmark
+    public OAuth2Authentication readAuthentication() {
+        return tokenStore.readAuthentication(accessToken.getValue());
+    }
+
+    @Benchmark
+    public OAuth2AccessToken getAccessToken() {
+        return tokenStore.getAccessToken(authentication);
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.benchmark;
+
+import com.ixortalk.authorization.server.security.signedtoken.SignedAccessTokenConverter;
+import com.ixortalk.authorization.server.security.signedtoken.SignedTokenServices;
+import com.ixortalk.authorization.server.security.signedtoken.TokenRevocationList;
+import com.ixortalk.authorization.server.security.tokenstore.BinaryTokenCodec;
+import com.ixortalk.authorization.server.security.tokenstore.CodecJdbcTokenStore;
+import com.ixortalk.authorization.server.security.tokenstore.JavaSerializationTokenCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+
+import javax.sql.DataSource;
+import java.security.KeyPairGenerator;
+import java.util.concurrent.TimeUnit;
+
+import static com.ixortalk.authorization.server.benchmark.BenchmarkDatabase.embeddedPostgreSqlDataSource;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aRefreshedAuthentication;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenValidationBenchmark {
+
+    private DefaultTokenServices databaseTokenServices;
+    private SignedTokenServices signedTokenServices;
+
+    private String opaqueAccessToken;
+    private String signedAccessToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        DataSource dataSource = embeddedPostgreSqlDataSource("token-validation-benchmark");
+
+        CodecJdbcTokenStore tokenStore = new CodecJdbcTokenStore(dataSource, new BinaryTokenCodec(), new JavaSerializationTokenCodec());
+        OAuth2Authentication authentication = aRefreshedAuthentication();
+
+        databaseTokenServices = new DefaultTokenServices();
+        databaseTokenServices.setTokenStore(tokenStore);
+        opaqueAccessToken = databaseTokenServices.createAccessToken(authentication).getValue();
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        SignedAccessTokenConverter signedAccessTokenConverter = new SignedAccessTokenConverter();
+        signedAccessTokenConverter.setKeyPair(keyPairGenerator.generateKeyPair());
+        signedAccessToken = signedAccessTokenConverter.enhance(databaseTokenServices.readAccessToken(opaqueAccessToken), authentication).getValue();
+
+        signedTokenServices = new SignedTokenServices(signedAccessTokenConverter, new TokenRevocationList(dataSource), databaseTokenServices);
+    }
+
+    @Benchmark
+    public OAuth2Authentication validateWithDatabase() {
+        return databaseTokenServices.loadAuthentication(opaqueAccessToken);
+    }
+
+    @Benchmark
+    public OAuth2Authentication validateSigned() {
+        return signedTokenServices.loadAuthentication(signedAccessToken);
+    }
+}
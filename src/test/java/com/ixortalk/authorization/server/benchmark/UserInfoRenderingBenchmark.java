@@ -0,0 +1,84 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ixortalk.authorization.server.domain.Authority;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import com.ixortalk.authorization.server.rest.SerializedUserInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.ixortalk.authorization.server.domain.LoginProvider.IXORTALK;
+import static java.util.stream.Collectors.toSet;
+import static java.util.stream.IntStream.range;
+
+/**
+ * Renders the /user response body the way {@link com.ixortalk.authorization.server.rest.UserInfoService} does on a cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserInfoRenderingBenchmark {
+
+    @Param({"2", "8"})
+    private int authorityCount;
+
+    private ObjectMapper objectMapper;
+    private UserProfile userProfile;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Set<Authority> authorities = range(0, authorityCount).mapToObj(i -> Authority.authority("ROLE_BENCHMARK_" + i)).collect(toSet());
+        userProfile = new UserProfile("jane.doe@ixortalk.com", "jane.doe@ixortalk.com", "Jane", "Doe", "https://www.ixortalk.com/profile-pictures/jane.doe.png", authorities, IXORTALK);
+    }
+
+    @Benchmark
+    public byte[] writeUserProfile() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userProfile);
+    }
+
+    @Benchmark
+    public SerializedUserInfo serializeUserInfo() throws JsonProcessingException {
+        return new SerializedUserInfo(objectMapper.writeValueAsBytes(userProfile), String.valueOf(userProfile.getLoginProvider()));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JdbcSharedCacheStoreIntegrationTest extends AbstractSpringIntegrationTest {
+
+    @Inject
+    private DataSource dataSource;
+
+    private JdbcSharedCacheStore node1;
+    private JdbcSharedCacheStore node2;
+
+    private String cacheName;
+    private String key;
+
+    @Before
+    public void before() {
+        node1 = new JdbcSharedCacheStore(dataSource);
+        node2 = new JdbcSharedCacheStore(dataSource);
+
+        cacheName = nextString("cache");
+        key = nextString("key");
+    }
+
+    @Test
+    public void putAndGet() {
+        node1.put(cacheName, key, "value".getBytes(UTF_8), 60);
+        node1.put(cacheName, key, "updated".getBytes(UTF_8), 60);
+
+        assertThat(node2.get(cacheName, key)).isEqualTo("updated".getBytes(UTF_8));
+    }
+
+    @Test
+    public void expiredEntriesIgnored() {
+        node1.put(cacheName, key, "value".getBytes(UTF_8), -1);
+
+        assertThat(node2.get(cacheName, key)).isNull();
+    }
+
+    @Test
+    public void evictionsPropagated() {
+        node1.put(cacheName, key, "value".getBytes(UTF_8), 60);
+
+        node1.evict(cacheName, key);
+
+        assertThat(node2.get(cacheName, key)).isNull();
+        assertThat(node2.pollEvictions())
+                .filteredOn(eviction -> eviction.getCacheName().equals(cacheName))
+                .extracting(SharedCacheStore.Eviction::getKey)
+                .containsExactly(key);
+    }
+
+    @Test
+    public void evictionsPolledOnce() {
+        node1.evict(cacheName, key);
+
+        assertThat(node2.pollEvictions()).extracting(SharedCacheStore.Eviction::getCacheName).contains(cacheName);
+        assertThat(node2.pollEvictions()).extracting(SharedCacheStore.Eviction::getCacheName).doesNotContain(cacheName);
+    }
+
+    @Test
+    public void evictionsBeforeStartupSkipped() {
+        node1.evict(cacheName, key);
+
+        assertThat(new JdbcSharedCacheStore(dataSource).pollEvictions()).extracting(SharedCacheStore.Eviction::getCacheName).doesNotContain(cacheName);
+    }
+
+    @Test
+    public void clearPropagated() {
+        node1.clear(cacheName);
+
+        assertThat(node2.pollEvictions())
+                .filteredOn(eviction -> eviction.getCacheName().equals(cacheName))
+                .extracting(SharedCacheStore.Eviction::isClear)
+                .containsExactly(true);
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.lang.Thread.sleep;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TwoLevelCacheTest {
+
+    private static final String CACHE_NAME = "userInfoCache";
+
+    private SharedCacheStore sharedCacheStore;
+    private TwoLevelCache node1;
+    private TwoLevelCache node2;
+
+    private Callable<String> valueLoader;
+    private String key;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() throws Exception {
+        sharedCacheStore = new InMemorySharedCacheStore();
+        node1 = new TwoLevelCache(CACHE_NAME, 100, 60, sharedCacheStore, 60);
+        node2 = new TwoLevelCache(CACHE_NAME, 100, 60, sharedCacheStore, 60);
+
+        key = nextString("key");
+        valueLoader = mock(Callable.class);
+        when(valueLoader.call()).thenReturn(nextString("value"), nextString("otherValue"));
+    }
+
+    @Test
+    public void loadedOnceAcrossNodes() throws Exception {
+        String value = node1.get(key, valueLoader);
+
+        assertThat(node1.get(key, valueLoader)).isEqualTo(value);
+        assertThat(node2.get(key, valueLoader)).isEqualTo(value);
+        assertThat(node2.get(key, String.class)).isEqualTo(value);
+        verify(valueLoader, times(1)).call();
+    }
+
+    @Test
+    public void evictRemovesSharedEntry() throws Exception {
+        node1.get(key, valueLoader);
+
+        node1.evict(key);
+
+        assertThat(node1.get(key)).isNull();
+        node2.get(key, valueLoader);
+        verify(valueLoader, times(2)).call();
+    }
+
+    @Test
+    public void evictLocalKeepsSharedEntry() throws Exception {
+        String value = node1.get(key, valueLoader);
+        node2.get(key, valueLoader);
+
+        node2.evictLocal(key);
+
+        assertThat(node2.get(key, valueLoader)).isEqualTo(value);
+        verify(valueLoader, times(1)).call();
+    }
+
+    @Test
+    public void staleValueServedWhileRefreshing() throws Exception {
+        List<Runnable> refreshes = newArrayList();
+        node1.refreshAhead(0.001, refreshes::add, 1, value -> "provider");
+        String value = node1.get(key, valueLoader);
+        sleep(100);
+
+        assertThat(node1.get(key, valueLoader)).isEqualTo(value);
+        assertThat(node1.get(key, valueLoader)).isEqualTo(value);
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.get(0).run();
+
+        assertThat(node1.get(key, valueLoader)).isNotEqualTo(value);
+        assertThat(node2.get(key, valueLoader)).isNotEqualTo(value);
+        verify(valueLoader, times(2)).call();
+    }
+
+    @Test
+    public void refreshesCappedPerGroup() throws Exception {
+        List<Runnable> refreshes = newArrayList();
+        node1.refreshAhead(0.001, refreshes::add, 1, value -> "provider");
+        String otherKey = nextString("otherKey");
+        node1.get(key, valueLoader);
+        node1.get(otherKey, valueLoader);
+        sleep(100);
+
+        node1.get(key, valueLoader);
+        node1.get(otherKey, valueLoader);
+
+        assertThat(refreshes).hasSize(1);
+    }
+
+    @Test
+    public void nonSerializableValuesStayLocal() {
+        Object value = new Object();
+
+        node1.put(key, value);
+
+        assertThat(node1.get(key).get()).isSameAs(value);
+        assertThat(node2.get(key)).isNull();
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.domain;
+
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static com.ixortalk.authorization.server.domain.Authority.authority;
+import static com.ixortalk.authorization.server.domain.AuthorityRegistry.grantedAuthority;
+import static com.ixortalk.authorization.server.domain.AuthoritySet.ofAuthorities;
+import static com.ixortalk.authorization.server.domain.AuthoritySet.ofGrantedAuthorities;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthoritySetTest {
+
+    @Test
+    public void registryHandsOutCanonicalInstances() {
+        String role = nextString("ROLE_");
+
+        assertThat(authority(role)).isSameAs(authority(role));
+        assertThat(grantedAuthority(role)).isSameAs(grantedAuthority(role)).isEqualTo(new SimpleGrantedAuthority(role));
+    }
+
+    @Test
+    public void equalAcrossAuthorityTypes() {
+        AuthoritySet fromProfile = ofAuthorities(newHashSet(authority("ROLE_A"), authority("ROLE_B")));
+        AuthoritySet fromLogin = ofGrantedAuthorities(asList(new SimpleGrantedAuthority("ROLE_B"), new SimpleGrantedAuthority("ROLE_A")));
+
+        assertThat(fromProfile).isEqualTo(fromLogin);
+        assertThat(fromProfile.hashCode()).isEqualTo(fromLogin.hashCode());
+        assertThat(fromProfile).isNotEqualTo(ofAuthorities(newHashSet(authority("ROLE_A"))));
+    }
+
+    @Test
+    public void membership() {
+        AuthoritySet authorities = ofAuthorities(newHashSet(authority("ROLE_A"), authority("ROLE_B")));
+
+        assertThat(authorities.contains("ROLE_A")).isTrue();
+        assertThat(authorities.contains(nextString("ROLE_"))).isFalse();
+        assertThat(authorities.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void convertsToCanonicalInstances() {
+        AuthoritySet authorities = ofAuthorities(newHashSet(authority("ROLE_A"), authority("ROLE_B")));
+
+        assertThat(authorities.toAuthorities()).containsOnly(authority("ROLE_A"), authority("ROLE_B"));
+        assertThat(authorities.getGrantedAuthorities()).extracting(GrantedAuthority::getAuthority).containsOnly("ROLE_A", "ROLE_B");
+        assertThat(authorities.getGrantedAuthorities()).allMatch(granted -> granted == grantedAuthority(granted.getAuthority()));
+        assertThat(authorities.getGrantedAuthorities()).isSameAs(authorities.getGrantedAuthorities());
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.loadtest;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import com.ixortalk.authorization.server.TestConfigConstants;
+import com.jayway.restassured.filter.session.SessionFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.ixortalk.authorization.server.TestConfigConstants.THIRD_PARTY_LOGIN_EVENTBRITE;
+import static com.ixortalk.authorization.server.TestConfigConstants.THIRD_PARTY_LOGIN_IXORTALK;
+import static com.ixortalk.authorization.server.TestConfigConstants.THIRD_PARTY_LOGIN_SALTO;
+import static com.jayway.restassured.RestAssured.given;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the login, token and user info flows concurrently against the WireMock identity providers and reports
+ * p50/p99 latency and throughput per flow to target/load-test-report.json.
+ * Run with the load-test profile, e.g. {@code mvn test -Pload-test -Dloadtest.threads=16 -Dloadtest.latency-in-millis.third-party-eventbrite=150}.
+ * Pass {@code -Dspring.datasource.url=jdbc:postgresql://...} (plus username and password) to run against a local PostgreSQL instead of H2.
+ */
+public class AuthorizationServerLoadTest extends AbstractSpringIntegrationTest {
+
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 8);
+    private static final int WARMUP_IN_SECONDS = Integer.getInteger("loadtest.warmup-in-seconds", 2);
+    private static final int DURATION_IN_SECONDS = Integer.getInteger("loadtest.duration-in-seconds", 10);
+    private static final File REPORT = new File("target/load-test-report.json");
+
+    private LoadRunner loadRunner;
+
+    @Before
+    public void injectThirdPartyLatency() {
+        injectLatency(thirdPartyIxorTalkWireMockRule, THIRD_PARTY_LOGIN_IXORTALK);
+        injectLatency(thirdPartyEventbriteWireMockRule, THIRD_PARTY_LOGIN_EVENTBRITE);
+        injectLatency(thirdPartySaltoWireMockRule, THIRD_PARTY_LOGIN_SALTO);
+        loadRunner = new LoadRunner(THREADS, WARMUP_IN_SECONDS, DURATION_IN_SECONDS);
+    }
+
+    @Test
+    public void flows() throws Exception {
+        List<FlowResult> flowResults = newArrayList();
+
+        for (TestConfigConstants thirdPartyLogin : new TestConfigConstants[]{THIRD_PARTY_LOGIN_IXORTALK, THIRD_PARTY_LOGIN_EVENTBRITE, THIRD_PARTY_LOGIN_SALTO}) {
+            authorizationCodeLogin(thirdPartyLogin);
+            flowResults.add(loadRunner.run("authorization_code " + thirdPartyLogin.configValue(), () -> authorizationCodeLogin(thirdPartyLogin)));
+        }
+
+        OAuth2AccessToken refreshable = authorizationCodeLogin(THIRD_PARTY_LOGIN_IXORTALK);
+        flowResults.add(loadRunner.run("refresh_token", () -> getAccessTokenWithRefreshToken(refreshable.getRefreshToken(), new SessionFilter())));
+
+        adminToken();
+        flowResults.add(loadRunner.run("client_credentials", AbstractSpringIntegrationTest::adminToken));
+
+        String accessToken = authorizationCodeLogin(THIRD_PARTY_LOGIN_IXORTALK).getValue();
+        flowResults.add(loadRunner.run("/user", () -> userInfo(accessToken)));
+
+        writeReport(flowResults);
+        assertThat(flowResults).extracting(flowResult -> flowResult.getRequests() - flowResult.getErrors()).doesNotContain(0L);
+    }
+
+    private OAuth2AccessToken authorizationCodeLogin(TestConfigConstants thirdPartyLogin) {
+        return getAccessTokenWithAuthorizationCode(thirdPartyLogin, new SessionFilter());
+    }
+
+    private static String userInfo(String accessToken) {
+        return given()
+                .auth().preemptive().oauth2(accessToken)
+                .when()
+                .get("/user")
+                .then()
+                .statusCode(HTTP_OK)
+                .extract().asString();
+    }
+
+    private void writeReport(List<FlowResult> flowResults) throws IOException {
+        REPORT.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT, flowResults);
+    }
+
+    private static void injectLatency(WireMockRule thirdPartyWireMockRule, TestConfigConstants thirdPartyLogin) {
+        thirdPartyWireMockRule.setGlobalFixedDelay(Integer.getInteger("loadtest.latency-in-millis." + thirdPartyLogin.configValue(), 0));
+    }
+}
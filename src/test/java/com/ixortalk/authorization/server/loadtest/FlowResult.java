@@ -0,0 +1,87 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.loadtest;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.util.Arrays.sort;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class FlowResult {
+
+    private final String flow;
+    private final long requests;
+    private final long errors;
+    private final double p50InMillis;
+    private final double p99InMillis;
+    private final double throughputPerSecond;
+
+    FlowResult(String flow, long[] latenciesInNanos, long errors, long durationInNanos) {
+        sort(latenciesInNanos);
+        this.flow = flow;
+        this.requests = latenciesInNanos.length + errors;
+        this.errors = errors;
+        this.p50InMillis = percentileInMillis(latenciesInNanos, 0.50);
+        this.p99InMillis = percentileInMillis(latenciesInNanos, 0.99);
+        this.throughputPerSecond = latenciesInNanos.length * (double) SECONDS.toNanos(1) / durationInNanos;
+    }
+
+    private static double percentileInMillis(long[] sortedLatenciesInNanos, double percentile) {
+        if (sortedLatenciesInNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) ceil(percentile * sortedLatenciesInNanos.length) - 1;
+        return sortedLatenciesInNanos[max(index, 0)] / (double) MILLISECONDS.toNanos(1);
+    }
+
+    public String getFlow() {
+        return flow;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getP50InMillis() {
+        return p50InMillis;
+    }
+
+    public double getP99InMillis() {
+        return p99InMillis;
+    }
+
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %8d requests %6d errors %10.2f req/s p50 %8.2f ms p99 %8.2f ms", flow, requests, errors, throughputPerSecond, p50InMillis, p99InMillis);
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+class LoadRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadRunner.class);
+
+    private final int threads;
+    private final long warmupInNanos;
+    private final long durationInNanos;
+
+    LoadRunner(int threads, int warmupInSeconds, int durationInSeconds) {
+        this.threads = threads;
+        this.warmupInNanos = SECONDS.toNanos(warmupInSeconds);
+        this.durationInNanos = SECONDS.toNanos(durationInSeconds);
+    }
+
+    FlowResult run(String flow, Callable<?> request) throws Exception {
+        ExecutorService executorService = newFixedThreadPool(threads);
+        try {
+            LongAdder errors = new LongAdder();
+            long measurementStart = nanoTime() + warmupInNanos;
+            long measurementEnd = measurementStart + durationInNanos;
+
+            List<Future<List<Long>>> workers = newArrayList();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executorService.submit(() -> drive(flow, request, measurementStart, measurementEnd, errors)));
+            }
+
+            List<Long> latenciesInNanos = newArrayList();
+            for (Future<List<Long>> worker : workers) {
+                latenciesInNanos.addAll(worker.get());
+            }
+            FlowResult flowResult = new FlowResult(flow, latenciesInNanos.stream().mapToLong(Long::longValue).toArray(), errors.sum(), durationInNanos);
+            LOGGER.info("{}", flowResult);
+            return flowResult;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static List<Long> drive(String flow, Callable<?> request, long measurementStart, long measurementEnd, LongAdder errors) {
+        List<Long> latenciesInNanos = newArrayList();
+        long start;
+        while ((start = nanoTime()) < measurementEnd) {
+            try {
+                request.call();
+                if (start >= measurementStart) {
+                    latenciesInNanos.add(nanoTime() - start);
+                }
+            } catch (Exception | AssertionError e) {
+                if (start >= measurementStart) {
+                    errors.increment();
+                }
+                LOGGER.debug("Request for {} failed: {}", flow, e.getMessage());
+            }
+        }
+        return latenciesInNanos;
+    }
+}
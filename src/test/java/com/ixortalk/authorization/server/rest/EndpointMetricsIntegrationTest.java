@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+import static com.ixortalk.authorization.server.TestConfigConstants.ADMIN_CLIENT_ID;
+import static com.ixortalk.authorization.server.TestConfigConstants.THIRD_PARTY_LOGIN_IXORTALK_CLIENT_ID;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static com.jayway.restassured.RestAssured.given;
+import static io.prometheus.client.CollectorRegistry.defaultRegistry;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+import static java.util.Optional.ofNullable;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EndpointMetricsIntegrationTest extends AbstractSpringIntegrationTest {
+
+    @Test
+    public void authorizationCodeGrant() {
+        double tokenRequests = requests("/oauth/token", "authorization_code", ADMIN_CLIENT_ID.configValue(), "success");
+        double loginCallbacks = requests("/login/third-party-ixortalk", "none", THIRD_PARTY_LOGIN_IXORTALK_CLIENT_ID.configValue(), "success");
+        double issued = tokens("issued");
+
+        getAccessTokenWithAuthorizationCode();
+
+        assertThat(requests("/oauth/token", "authorization_code", ADMIN_CLIENT_ID.configValue(), "success")).isEqualTo(tokenRequests + 1);
+        assertThat(requests("/login/third-party-ixortalk", "none", THIRD_PARTY_LOGIN_IXORTALK_CLIENT_ID.configValue(), "success")).isEqualTo(loginCallbacks + 1);
+        assertThat(tokens("issued")).isEqualTo(issued + 1);
+        assertThat(defaultRegistry.getSampleValue("oauth2_live_access_tokens", new String[]{"token_store"}, new String[]{"tokenStore"})).isGreaterThanOrEqualTo(1.0);
+        assertThat(defaultRegistry.getSampleValue("oauth2_live_access_tokens", new String[]{"token_store"}, new String[]{"thirdPartyTokenStore"})).isGreaterThanOrEqualTo(1.0);
+    }
+
+    @Test
+    public void refreshTokenGrant() {
+        OAuth2AccessToken accessToken = getAccessTokenWithAuthorizationCode();
+        double tokenRequests = requests("/oauth/token", "refresh_token", ADMIN_CLIENT_ID.configValue(), "success");
+        double refreshed = tokens("refreshed");
+
+        getAccessTokenWithRefreshToken(accessToken.getRefreshToken());
+
+        assertThat(requests("/oauth/token", "refresh_token", ADMIN_CLIENT_ID.configValue(), "success")).isEqualTo(tokenRequests + 1);
+        assertThat(tokens("refreshed")).isEqualTo(refreshed + 1);
+    }
+
+    @Test
+    public void userInfo() {
+        String accessToken = getAccessTokenWithAuthorizationCode().getValue();
+        double userRequests = requests("/user", "none", ADMIN_CLIENT_ID.configValue(), "success");
+
+        given()
+                .auth().preemptive().oauth2(accessToken)
+                .when()
+                .get("/user")
+                .then()
+                .statusCode(HTTP_OK);
+
+        assertThat(requests("/user", "none", ADMIN_CLIENT_ID.configValue(), "success")).isEqualTo(userRequests + 1);
+    }
+
+    @Test
+    public void unknownClient() {
+        double tokenRequests = requests("/oauth/token", "client_credentials", "unknown", "client_error");
+
+        given()
+                .auth().preemptive().basic(nextString("client"), nextString("secret"))
+                .parameters("grant_type", "client_credentials")
+                .when()
+                .post("/oauth/token")
+                .then()
+                .statusCode(HTTP_UNAUTHORIZED);
+
+        assertThat(requests("/oauth/token", "client_credentials", "unknown", "client_error")).isEqualTo(tokenRequests + 1);
+    }
+
+    private static double requests(String endpoint, String grantType, String clientId, String outcome) {
+        return ofNullable(defaultRegistry.getSampleValue("http_endpoint_request_duration_seconds_count", new String[]{"endpoint", "grant_type", "client_id", "outcome"}, new String[]{endpoint, grantType, clientId, outcome})).orElse(0.0);
+    }
+
+    private static double tokens(String event) {
+        return ofNullable(defaultRegistry.getSampleValue("oauth2_access_tokens_total", new String[]{"event"}, new String[]{event})).orElse(0.0);
+    }
+}
@@ -50,9 +50,12 @@ import static com.ixortalk.test.util.Randomizer.nextString;
 import static com.jayway.restassured.RestAssured.given;
 import static java.lang.System.currentTimeMillis;
 import static java.lang.Thread.sleep;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.restdocs.headers.HeaderDocumentation.requestHeaders;
 import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessRequest;
 import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessResponse;
@@ -263,6 +266,34 @@ public class UserInfoController_GetUserInfo_IntegrationAndRestDocTest extends Ab
         thirdPartyIxorTalkWireMockRule.verify(expectedInvocations.size(), getRequestedFor(urlPathEqualTo("/user-info")));
     }
 
+    @Test
+    public void getUserInfo_NotModified() {
+        OAuth2AccessToken oAuth2AccessToken = getAccessTokenWithAuthorizationCode();
+        String eTag =
+                given()
+                        .auth().preemptive().oauth2(oAuth2AccessToken.getValue())
+                        .when()
+                        .get("/user")
+                        .then()
+                        .statusCode(HTTP_OK)
+                        .extract().header(ETAG);
+
+        assertThat(eTag).isNotEmpty();
+
+        String body =
+                given()
+                        .auth().preemptive().oauth2(oAuth2AccessToken.getValue())
+                        .header(IF_NONE_MATCH, eTag)
+                        .when()
+                        .get("/user")
+                        .then()
+                        .statusCode(HTTP_NOT_MODIFIED)
+                        .header(ETAG, eTag)
+                        .extract().asString();
+
+        assertThat(body).isEmpty();
+    }
+
     @Test
     public void getUserInfo_CacheExpiry() throws InterruptedException {
         OAuth2AccessToken oAuth2AccessToken = getAccessTokenWithAuthorizationCode();
@@ -289,6 +320,32 @@ public class UserInfoController_GetUserInfo_IntegrationAndRestDocTest extends Ab
         thirdPartyIxorTalkWireMockRule.verify(expectedInvocations.size(), getRequestedFor(urlPathEqualTo("/user-info")));
     }
 
+    @Test
+    public void getUserInfo_RefreshAhead() throws InterruptedException {
+        OAuth2AccessToken oAuth2AccessToken = getAccessTokenWithAuthorizationCode();
+        given()
+                .auth().preemptive().oauth2(oAuth2AccessToken.getValue())
+                .when()
+                .get("/user")
+                .then()
+                .statusCode(HTTP_OK);
+
+        sleep((long) (ixorTalkConfigProperties.getSecurity().getUserInfoCache().getTtlInSeconds() * 1000 * ixorTalkConfigProperties.getSecurity().getUserInfoCache().getRefreshAhead().getRefreshAfterFraction()) + 100);
+
+        given()
+                .auth().preemptive().oauth2(oAuth2AccessToken.getValue())
+                .when()
+                .get("/user")
+                .then()
+                .statusCode(HTTP_OK);
+
+        sleep(500);
+
+        List<String> expectedInvocations = newArrayList("during login", "actual first /user call", "background refresh");
+
+        thirdPartyIxorTalkWireMockRule.verify(expectedInvocations.size(), getRequestedFor(urlPathEqualTo("/user-info")));
+    }
+
     @Test
     public void getUserInfo_NoStoredThirdPartyToken() {
 
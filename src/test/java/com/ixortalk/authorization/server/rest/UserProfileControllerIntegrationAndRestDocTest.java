@@ -24,9 +24,13 @@
 package com.ixortalk.authorization.server.rest;
 
 import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import com.ixortalk.authorization.server.domain.UserProfile;
 import com.jayway.restassured.path.json.JsonPath;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.ixortalk.authorization.server.domain.UserProfileTestBuilder.aUserProfile;
@@ -34,12 +38,15 @@ import static com.jayway.restassured.RestAssured.given;
 import static com.jayway.restassured.http.ContentType.JSON;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.StreamSupport.stream;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.restdocs.headers.HeaderDocumentation.requestHeaders;
 import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessRequest;
 import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessResponse;
 import static org.springframework.restdocs.operation.preprocess.Preprocessors.prettyPrint;
 import static org.springframework.restdocs.restassured.RestAssuredRestDocumentation.document;
+import static org.springframework.web.util.UriComponentsBuilder.fromUriString;
 
 public class UserProfileControllerIntegrationAndRestDocTest extends AbstractSpringIntegrationTest {
 
@@ -96,4 +103,99 @@ public class UserProfileControllerIntegrationAndRestDocTest extends AbstractSpri
         .then()
                 .statusCode(HTTP_FORBIDDEN);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void pagedAndSortedAsAdmin() {
+
+        JsonPath jsonPath =
+                given(restDocSpecification)
+                        .auth().preemptive().oauth2(adminToken().getValue())
+                        .filter(
+                                document("user-profiles/get-paged/as-admin",
+                                        preprocessRequest(staticUris(), prettyPrint()),
+                                        preprocessResponse(prettyPrint()),
+                                        requestHeaders(describeAuthorizationTokenHeader()))
+                        )
+                .when()
+                        .contentType(JSON)
+                        .param("page", 0)
+                        .param("size", 2)
+                        .param("sort", "name,desc")
+                        .get("/user-profiles")
+                .then()
+                        .statusCode(HTTP_OK)
+                        .extract().jsonPath();
+
+        assertThat(jsonPath.getList("_embedded.userProfiles.name")).containsExactly(USER_C, USER_B);
+        assertThat(jsonPath.getInt("page.totalElements")).isEqualTo(3);
+        assertThat(jsonPath.getInt("page.totalPages")).isEqualTo(2);
+    }
+
+    @Test
+    public void pagedAsUser() {
+
+        given()
+                .auth().preemptive().oauth2(userToken().getValue())
+        .when()
+                .contentType(JSON)
+                .param("page", 0)
+                .param("size", 2)
+                .get("/user-profiles")
+        .then()
+                .statusCode(HTTP_FORBIDDEN);
+    }
+
+    @Test
+    public void keysetAsAdmin() {
+
+        List<String> namesInIdOrder =
+                stream(userProfileRestResource.findAll(new Sort("id")).spliterator(), false)
+                        .map(UserProfile::getName)
+                        .collect(toList());
+
+        JsonPath firstPage =
+                given(restDocSpecification)
+                        .auth().preemptive().oauth2(adminToken().getValue())
+                        .filter(
+                                document("user-profiles/get-after/as-admin",
+                                        preprocessRequest(staticUris(), prettyPrint()),
+                                        preprocessResponse(prettyPrint()),
+                                        requestHeaders(describeAuthorizationTokenHeader()))
+                        )
+                .when()
+                        .contentType(JSON)
+                        .param("size", 2)
+                        .get("/user-profiles/after")
+                .then()
+                        .statusCode(HTTP_OK)
+                        .extract().jsonPath();
+
+        assertThat(firstPage.getList("_embedded.userProfiles.name")).containsExactlyElementsOf(namesInIdOrder.subList(0, 2));
+
+        JsonPath lastPage =
+                given()
+                        .auth().preemptive().oauth2(adminToken().getValue())
+                .when()
+                        .contentType(JSON)
+                        .queryParams(fromUriString(firstPage.getString("_links.next.href")).build().getQueryParams().toSingleValueMap())
+                        .get("/user-profiles/after")
+                .then()
+                        .statusCode(HTTP_OK)
+                        .extract().jsonPath();
+
+        assertThat(lastPage.getList("_embedded.userProfiles.name")).containsExactlyElementsOf(namesInIdOrder.subList(2, 3));
+        assertThat(lastPage.getMap("_links")).doesNotContainKey("next");
+    }
+
+    @Test
+    public void keysetAsUser() {
+
+        given()
+                .auth().preemptive().oauth2(userToken().getValue())
+        .when()
+                .contentType(JSON)
+                .get("/user-profiles/after")
+        .then()
+                .statusCode(HTTP_FORBIDDEN);
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import com.ixortalk.authorization.server.cache.SharedCacheStore;
+import com.ixortalk.authorization.server.cache.SharedCacheSynchronizer;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import com.ixortalk.authorization.server.security.CachingUserDetailsService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static com.ixortalk.authorization.server.domain.Authority.authority;
+import static com.ixortalk.authorization.server.domain.UserProfileTestBuilder.aUserProfile;
+import static com.ixortalk.authorization.server.rest.UserProfileImportController.APPLICATION_NDJSON_VALUE;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static com.jayway.restassured.RestAssured.given;
+import static io.prometheus.client.CollectorRegistry.defaultRegistry;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class UserProfileEntityCacheIntegrationTest extends AbstractSpringIntegrationTest {
+
+    @Inject
+    private CachingUserDetailsService userDetailsService;
+
+    @Inject
+    private SharedCacheStore sharedCacheStore;
+
+    @Inject
+    private SharedCacheSynchronizer sharedCacheSynchronizer;
+
+    @Inject
+    private DataSource dataSource;
+
+    private String email;
+    private UserProfile userProfile;
+
+    @Before
+    public void before() {
+        email = nextString("cached") + "@ixortalk.com";
+        userProfile = userProfileRestResource.save(aUserProfile().withName(email).withEmail(email).withFirstName("first").withAuthorities(authority("ROLE_A")).build());
+        userProfileRestResource.findByEmail(email);
+    }
+
+    @Test
+    public void hitsArePublishedToPrometheus() {
+        double hitsBefore = entityCacheHits();
+
+        userProfileRestResource.findByEmail(email);
+
+        assertThat(entityCacheHits()).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    public void updateInvalidatesEntityAndAuthorities() {
+        UserProfile cached = userProfileRestResource.findByEmail(email).get();
+        userProfileRestResource.save(cached.update(email, email, "updated", null, null, newHashSet(authority("ROLE_B")), null));
+
+        UserProfile found = userProfileRestResource.findByEmail(email).get();
+
+        assertThat(found.getFirstName()).isEqualTo("updated");
+        assertThat(found.getAuthorities()).containsOnly(authority("ROLE_B"));
+    }
+
+    @Test
+    public void updatePublishesEviction() {
+        UserProfile cached = userProfileRestResource.findByEmail(email).get();
+        userProfileRestResource.save(cached.update(email, email, "updated", null, null, cached.getAuthorities(), null));
+
+        assertThat(new JdbcTemplate(dataSource).queryForObject(
+                "select count(*) from shared_cache_eviction where cache_name = ? and cache_key = ?",
+                Integer.class,
+                UserProfile.class.getName(), userProfile.getId().toString()))
+                .isGreaterThan(0);
+    }
+
+    @Test
+    public void evictionFromOtherNodeInvalidates() {
+        new JdbcTemplate(dataSource).update("update user_profile set first_name = ? where id = ?", "remote", userProfile.getId());
+        assertThat(userProfileRestResource.findByEmail(email).get().getFirstName()).isEqualTo("first");
+
+        sharedCacheStore.evict(UserProfile.class.getName(), userProfile.getId().toString());
+        sharedCacheSynchronizer.synchronize();
+
+        assertThat(userProfileRestResource.findByEmail(email).get().getFirstName()).isEqualTo("remote");
+    }
+
+    @Test
+    public void emailChangeInvalidatesNaturalId() {
+        String changedEmail = nextString("changed") + "@ixortalk.com";
+        UserProfile cached = userProfileRestResource.findByEmail(email).get();
+        userProfileRestResource.save(cached.update(email, changedEmail, "first", null, null, cached.getAuthorities(), null));
+
+        assertThat(userProfileRestResource.findByEmail(email)).isEmpty();
+        assertThat(userProfileRestResource.findByEmail(changedEmail)).isPresent();
+    }
+
+    @Test
+    public void deleteThroughRestResourceInvalidates() {
+        userDetailsService.loadUserByUsername(email);
+
+        given()
+                .auth().preemptive().oauth2(adminToken().getValue())
+                .when()
+                .delete("/user-profiles/{id}", userProfile.getId())
+                .then()
+                .statusCode(HTTP_NO_CONTENT);
+
+        assertThat(userProfileRestResource.findByEmail(email)).isEmpty();
+        assertThat(catchThrowable(() -> userDetailsService.loadUserByUsername(email))).isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    public void importUpdateInvalidates() {
+        userDetailsService.loadUserByUsername(email);
+
+        given()
+                .auth().preemptive().oauth2(adminToken().getValue())
+                .contentType(APPLICATION_NDJSON_VALUE)
+                .body(("{\"email\":\"" + email + "\",\"firstName\":\"imported\",\"authorities\":[\"ROLE_B\"]}\n").getBytes(UTF_8))
+                .when()
+                .post("/user-profiles/import")
+                .then()
+                .statusCode(HTTP_OK);
+
+        UserProfile found = userProfileRestResource.findByEmail(email).get();
+
+        assertThat(found.getFirstName()).isEqualTo("imported");
+        assertThat(found.getAuthorities()).containsOnly(authority("ROLE_B"));
+        assertThat(userDetailsService.loadUserByUsername(email).getAuthorities()).extracting("authority").containsOnly("ROLE_B");
+    }
+
+    private static double entityCacheHits() {
+        Double hits = defaultRegistry.getSampleValue("hibernate_cache_requests_total", new String[]{"region", "result"}, new String[]{UserProfile.class.getName(), "hit"});
+        return hits == null ? 0 : hits;
+    }
+}
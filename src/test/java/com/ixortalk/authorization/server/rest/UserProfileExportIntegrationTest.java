@@ -0,0 +1,109 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import com.jayway.restassured.path.json.JsonPath;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.ixortalk.authorization.server.domain.Authority.authority;
+import static com.ixortalk.authorization.server.domain.LoginProvider.EVENTBRITE;
+import static com.ixortalk.authorization.server.domain.LoginProvider.IXORTALK;
+import static com.ixortalk.authorization.server.domain.UserProfileTestBuilder.aUserProfile;
+import static com.jayway.restassured.RestAssured.given;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.Arrays.stream;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserProfileExportIntegrationTest extends AbstractSpringIntegrationTest {
+
+    private static final String USER_A = "a@ixortalk.com";
+    private static final String USER_B = "b@ixortalk.com";
+    private static final String USER_C = "c@ixortalk.com";
+
+    @Before
+    public void before() {
+        userProfileRestResource.save(newArrayList(
+                aUserProfile().withName(USER_A).withEmail(USER_A).withFirstName("first a").withLoginProvider(IXORTALK).withAuthorities(authority("ROLE_ADMIN"), authority("ROLE_USER")).build(),
+                aUserProfile().withName(USER_B).withEmail(USER_B).withLoginProvider(EVENTBRITE).withAuthorities(authority("ROLE_USER")).build(),
+                aUserProfile().withName(USER_C).withEmail(USER_C).withLoginProvider(IXORTALK).build()
+        ));
+    }
+
+    @Test
+    public void exportAll() {
+        List<JsonPath> export = export(emptyMap());
+
+        assertThat(export).extracting(line -> line.getString("email")).containsExactly(USER_A, USER_B, USER_C);
+        assertThat(export.get(0).getString("firstName")).isEqualTo("first a");
+        assertThat(export.get(0).getString("loginProvider")).isEqualTo("IXORTALK");
+        assertThat(export.get(0).getList("authorities")).containsOnly("ROLE_ADMIN", "ROLE_USER");
+        assertThat(export.get(2).getList("authorities")).isEmpty();
+    }
+
+    @Test
+    public void filterByLoginProvider() {
+        assertThat(export(singletonMap("loginProvider", "IXORTALK"))).extracting(line -> line.getString("email")).containsExactly(USER_A, USER_C);
+    }
+
+    @Test
+    public void filterByAuthority() {
+        List<JsonPath> export = export(singletonMap("authority", "ROLE_ADMIN"));
+
+        assertThat(export).extracting(line -> line.getString("email")).containsExactly(USER_A);
+        assertThat(export.get(0).getList("authorities")).containsOnly("ROLE_ADMIN", "ROLE_USER");
+    }
+
+    @Test
+    public void asUser() {
+        given()
+                .auth().preemptive().oauth2(userToken().getValue())
+                .when()
+                .get("/user-profiles/export")
+                .then()
+                .statusCode(HTTP_FORBIDDEN);
+    }
+
+    private List<JsonPath> export(Map<String, String> filters) {
+        String export =
+                given()
+                        .auth().preemptive().oauth2(adminToken().getValue())
+                        .queryParams(filters)
+                        .when()
+                        .get("/user-profiles/export")
+                        .then()
+                        .statusCode(HTTP_OK)
+                        .extract().asString();
+        return stream(export.split("\n")).filter(line -> !line.isEmpty()).map(JsonPath::new).collect(toList());
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import com.jayway.restassured.path.json.JsonPath;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.ixortalk.authorization.server.domain.Authority.authority;
+import static com.ixortalk.authorization.server.domain.LoginProvider.EVENTBRITE;
+import static com.ixortalk.authorization.server.domain.LoginProvider.IXORTALK;
+import static com.ixortalk.authorization.server.domain.UserProfileTestBuilder.aUserProfile;
+import static com.ixortalk.authorization.server.rest.UserProfileImportController.APPLICATION_NDJSON_VALUE;
+import static com.ixortalk.authorization.server.rest.UserProfileImportController.TEXT_CSV_VALUE;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static com.jayway.restassured.RestAssured.given;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserProfileImportIntegrationTest extends AbstractSpringIntegrationTest {
+
+    @Test
+    public void ndjsonUpsertsByEmail() {
+        String existingEmail = nextString("existing") + "@ixortalk.com";
+        String newEmail = nextString("new") + "@ixortalk.com";
+        userProfileRestResource.save(aUserProfile().withName(existingEmail).withEmail(existingEmail).withFirstName("old").withAuthorities(authority("ROLE_OLD")).build());
+
+        List<JsonPath> report = importUserProfiles(
+                APPLICATION_NDJSON_VALUE,
+                "{\"email\":\"" + newEmail + "\",\"firstName\":\"first\",\"lastName\":\"last\",\"authorities\":[\"ROLE_A\",\"ROLE_B\"],\"loginProvider\":\"IXORTALK\"}\n" +
+                        "{\"email\":\"" + existingEmail + "\",\"firstName\":\"new\",\"authorities\":[\"ROLE_NEW\"]}\n" +
+                        "{not json}\n" +
+                        "{\"firstName\":\"no email\"}\n");
+
+        assertThat(report).extracting(line -> line.getInt("line")).containsExactly(1, 2, 3, 4);
+        assertThat(report).extracting(line -> line.getString("status")).containsExactly("CREATED", "UPDATED", "FAILED", "FAILED");
+        assertThat(report.get(3).getString("error")).isEqualTo("Missing email");
+
+        UserProfile created = userProfileRestResource.findByEmail(newEmail).get();
+        assertThat(created.getName()).isEqualTo(newEmail);
+        assertThat(created.getFirstName()).isEqualTo("first");
+        assertThat(created.getLastName()).isEqualTo("last");
+        assertThat(created.getLoginProvider()).isEqualTo(IXORTALK);
+        assertThat(created.getAuthorities()).containsOnly(authority("ROLE_A"), authority("ROLE_B"));
+
+        UserProfile updated = userProfileRestResource.findByEmail(existingEmail).get();
+        assertThat(updated.getFirstName()).isEqualTo("new");
+        assertThat(updated.getAuthorities()).containsOnly(authority("ROLE_NEW"));
+    }
+
+    @Test
+    public void csvAcrossSeveralBatches() {
+        StringBuilder csv = new StringBuilder("email,firstName,lastName,profilePictureUrl,authorities,loginProvider\n");
+        for (int i = 0; i < 120; i++) {
+            csv.append("user").append(i).append("@ixortalk.com,\"Last, First\",").append(i).append(",,ROLE_A;ROLE_B,eventbrite\n");
+        }
+        csv.append("user0@ixortalk.com,Updated,0,,ROLE_C,eventbrite\n");
+
+        List<JsonPath> report = importUserProfiles(TEXT_CSV_VALUE, csv.toString());
+
+        assertThat(report).hasSize(121);
+        assertThat(report.subList(0, 120)).extracting(line -> line.getString("status")).containsOnly("CREATED");
+        assertThat(report.get(120).getString("status")).isEqualTo("UPDATED");
+        assertThat(userProfileRestResource.count()).isEqualTo(120);
+
+        UserProfile userProfile = userProfileRestResource.findByEmail("user7@ixortalk.com").get();
+        assertThat(userProfile.getFirstName()).isEqualTo("Last, First");
+        assertThat(userProfile.getLoginProvider()).isEqualTo(EVENTBRITE);
+        assertThat(userProfile.getAuthorities()).containsOnly(authority("ROLE_A"), authority("ROLE_B"));
+        assertThat(userProfileRestResource.findByEmail("user0@ixortalk.com").get().getAuthorities()).containsOnly(authority("ROLE_C"));
+    }
+
+    @Test
+    public void idsDoNotCollideWithHibernateAllocation() {
+        importUserProfiles(APPLICATION_NDJSON_VALUE, "{\"email\":\"imported@ixortalk.com\"}\n");
+
+        userProfileRestResource.save(aUserProfile().withName("saved@ixortalk.com").withEmail("saved@ixortalk.com").build());
+        importUserProfiles(APPLICATION_NDJSON_VALUE, "{\"email\":\"imported-again@ixortalk.com\"}\n");
+
+        assertThat(userProfileRestResource.count()).isEqualTo(3);
+    }
+
+    @Test
+    public void asUser() {
+        given()
+                .auth().preemptive().oauth2(userToken().getValue())
+                .contentType(APPLICATION_NDJSON_VALUE)
+                .body("{\"email\":\"user@ixortalk.com\"}\n".getBytes(UTF_8))
+                .when()
+                .post("/user-profiles/import")
+                .then()
+                .statusCode(HTTP_FORBIDDEN);
+
+        assertThat(userProfileRestResource.findByEmail("user@ixortalk.com")).isEmpty();
+    }
+
+    private List<JsonPath> importUserProfiles(String contentType, String body) {
+        String report =
+                given()
+                        .auth().preemptive().oauth2(adminToken().getValue())
+                        .contentType(contentType)
+                        .body(body.getBytes(UTF_8))
+                        .when()
+                        .post("/user-profiles/import")
+                        .then()
+                        .statusCode(HTTP_OK)
+                        .extract().asString();
+        return stream(report.split("\n")).map(JsonPath::new).collect(toList());
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.rest;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.ixortalk.authorization.server.domain.AuthorityTestBuilder.authority;
+import static com.ixortalk.authorization.server.domain.UserProfile.AUTHORITIES_BATCH_SIZE;
+import static com.ixortalk.authorization.server.domain.UserProfileTestBuilder.aUserProfile;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserProfileRestResourceQueryCountIntegrationTest extends AbstractSpringIntegrationTest {
+
+    private static final int NUMBER_OF_PROFILES = AUTHORITIES_BATCH_SIZE + 5;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private List<UserProfile> userProfiles;
+
+    @Before
+    public void before() {
+        userProfiles = newArrayList(userProfileRestResource.save(
+                IntStream.range(0, NUMBER_OF_PROFILES)
+                        .mapToObj(i -> aUserProfile().withName(nextString("name")).withEmail(nextString("email")).withAuthorities(authority("ROLE_A"), authority("ROLE_B")).build())
+                        .collect(toList())));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void findAllBatchFetchesAuthorities() {
+        List<UserProfile> found = newArrayList(userProfileRestResource.findAll());
+
+        assertThat(found).hasSize(NUMBER_OF_PROFILES);
+        assertThat(found).allMatch(userProfile -> userProfile.getAuthorities().size() == 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 2);
+    }
+
+    @Test
+    public void findAllPagedBatchFetchesAuthorities() {
+        List<UserProfile> found = userProfileRestResource.findAll(new PageRequest(0, 50)).getContent();
+
+        assertThat(found).hasSize(50);
+        assertThat(found).allMatch(userProfile -> userProfile.getAuthorities().size() == 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 1 + 1);
+    }
+
+    @Test
+    public void findByEmailResolvesNaturalIdAndLoadsAuthoritiesWithEntity() {
+        UserProfile found = userProfileRestResource.findByEmail(userProfiles.get(0).getEmail()).get();
+
+        assertThat(found.getAuthorities()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 1);
+    }
+
+    @Test
+    public void findByEmailIsServedFromEntityCacheOnceLoaded() {
+        userProfileRestResource.findByEmail(userProfiles.get(0).getEmail());
+        statistics.clear();
+
+        UserProfile found = userProfileRestResource.findByEmail(userProfiles.get(0).getEmail()).get();
+
+        assertThat(found.getAuthorities()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+}
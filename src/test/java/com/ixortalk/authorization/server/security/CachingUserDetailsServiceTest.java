@@ -0,0 +1,115 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security;
+
+import com.ixortalk.authorization.server.cache.SharedCacheStore;
+import com.ixortalk.authorization.server.cache.SharedCacheSynchronizer;
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import com.ixortalk.authorization.server.domain.UserProfile;
+import com.ixortalk.authorization.server.rest.UserProfileRestResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static com.ixortalk.authorization.server.domain.Authority.authority;
+import static com.ixortalk.authorization.server.domain.UserProfileTestBuilder.aUserProfile;
+import static com.ixortalk.authorization.server.security.CachingUserDetailsService.USER_DETAILS_CACHE_NAME;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.util.Collections.singletonList;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingUserDetailsServiceTest {
+
+    private UserProfileRestResource userProfileRestResource;
+    private SharedCacheStore sharedCacheStore;
+    private CachingUserDetailsService cachingUserDetailsService;
+
+    private String username;
+
+    @Before
+    public void before() {
+        userProfileRestResource = mock(UserProfileRestResource.class);
+        sharedCacheStore = mock(SharedCacheStore.class);
+        cachingUserDetailsService = new CachingUserDetailsService(new UserDetailsService(userProfileRestResource), sharedCacheStore, new IxorTalkConfigProperties.UserDetailsCache());
+
+        username = nextString("user");
+        UserProfile userProfile = aUserProfile().withName(username).withEmail(username).withAuthorities(authority("ROLE_A"), authority("ROLE_B")).build();
+        when(userProfileRestResource.findByEmail(username)).thenReturn(of(userProfile));
+    }
+
+    @Test
+    public void loadedOnce() {
+        UserDetails userDetails = cachingUserDetailsService.loadUserByUsername(username);
+
+        assertThat(cachingUserDetailsService.loadUserByUsername(username)).isSameAs(userDetails);
+        verify(userProfileRestResource, times(1)).findByEmail(username);
+    }
+
+    @Test
+    public void authoritiesBuiltOnce() {
+        UserDetails userDetails = cachingUserDetailsService.loadUserByUsername(username);
+
+        assertThat(userDetails.getAuthorities()).extracting("authority").containsOnly("ROLE_A", "ROLE_B");
+        assertThat(cachingUserDetailsService.loadUserByUsername(username).getAuthorities()).isSameAs(userDetails.getAuthorities());
+    }
+
+    @Test
+    public void evictReloads() {
+        UserDetails userDetails = cachingUserDetailsService.loadUserByUsername(username);
+
+        cachingUserDetailsService.evict(username);
+
+        assertThat(cachingUserDetailsService.loadUserByUsername(username)).isNotSameAs(userDetails);
+        verify(userProfileRestResource, times(2)).findByEmail(username);
+        verify(sharedCacheStore).evict(USER_DETAILS_CACHE_NAME, username);
+    }
+
+    @Test
+    public void evictionFromOtherNodeReloads() {
+        UserDetails userDetails = cachingUserDetailsService.loadUserByUsername(username);
+        when(sharedCacheStore.pollEvictions()).thenReturn(singletonList(new SharedCacheStore.Eviction(USER_DETAILS_CACHE_NAME, username)));
+
+        new SharedCacheSynchronizer(sharedCacheStore, singletonList(cachingUserDetailsService)).synchronize();
+
+        assertThat(cachingUserDetailsService.loadUserByUsername(username)).isNotSameAs(userDetails);
+        verify(userProfileRestResource, times(2)).findByEmail(username);
+    }
+
+    @Test
+    public void unknownUserIsNotCached() {
+        String unknown = nextString("unknown");
+        when(userProfileRestResource.findByEmail(unknown)).thenReturn(empty());
+
+        assertThat(catchThrowable(() -> cachingUserDetailsService.loadUserByUsername(unknown))).isInstanceOf(UsernameNotFoundException.class);
+        assertThat(catchThrowable(() -> cachingUserDetailsService.loadUserByUsername(unknown))).isInstanceOf(UsernameNotFoundException.class);
+        verify(userProfileRestResource, times(2)).findByEmail(unknown);
+    }
+}
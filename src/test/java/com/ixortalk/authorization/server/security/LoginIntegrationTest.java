@@ -27,6 +27,11 @@ import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
 import org.assertj.core.internal.IgnoringFieldsComparator;
 import org.junit.Test;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.ixortalk.authorization.server.TestConfigConstants.THIRD_PARTY_LOGIN_EVENTBRITE;
 import static com.ixortalk.authorization.server.TestConfigConstants.THIRD_PARTY_LOGIN_IXORTALK;
 import static com.ixortalk.authorization.server.TestConfigConstants.THIRD_PARTY_LOGIN_SALTO;
@@ -34,8 +39,11 @@ import static com.ixortalk.authorization.server.domain.AuthorityTestBuilder.auth
 import static com.ixortalk.authorization.server.domain.LoginProvider.IXORTALK;
 import static com.ixortalk.authorization.server.domain.UserProfileTestBuilder.aUserProfile;
 import static com.jayway.restassured.RestAssured.given;
+import static io.prometheus.client.CollectorRegistry.defaultRegistry;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.Optional.ofNullable;
 import static org.assertj.core.api.Assertions.assertThat;
+import static wiremock.org.apache.http.HttpHeaders.AUTHORIZATION;
 import static wiremock.org.apache.http.HttpHeaders.LOCATION;
 import static wiremock.org.eclipse.jetty.http.HttpStatus.MOVED_TEMPORARILY_302;
 
@@ -105,6 +113,23 @@ public class LoginIntegrationTest extends AbstractSpringIntegrationTest {
         assertThat(response).isEqualTo("hello " + PRINCIPAL_NAME_SALTO);
     }
 
+    @Test
+    public void login_withTwoProvidersInOneSession() {
+        given()
+                .filter(sessionFilter)
+                .when()
+                .get("/hello");
+        performOAuth2Login(THIRD_PARTY_LOGIN_IXORTALK)
+                .then()
+                .statusCode(HTTP_OK);
+
+        performOAuth2Login(THIRD_PARTY_LOGIN_EVENTBRITE);
+
+        thirdPartyEventbriteWireMockRule.verify(1, postRequestedFor(urlEqualTo("/oauth/token")));
+        thirdPartyEventbriteWireMockRule.verify(getRequestedFor(urlPathEqualTo("/user-info")).withHeader(AUTHORIZATION, equalTo("Bearer " + EVENTBRITE_THIRD_PARTY_ACCESS_TOKEN)));
+        thirdPartyEventbriteWireMockRule.verify(0, getRequestedFor(urlPathEqualTo("/user-info")).withHeader(AUTHORIZATION, equalTo("Bearer " + IXORTALK_THIRD_PARTY_ACCESS_TOKEN)));
+    }
+
     @Test
     public void userProfileSaved() {
         given()
@@ -130,5 +155,44 @@ public class LoginIntegrationTest extends AbstractSpringIntegrationTest {
                                 .withLoginProvider(IXORTALK)
                                 .build());
     }
-}
 
+    @Test
+    public void unchangedUserProfileNotRewritten() {
+        String accessToken = getAccessTokenWithAuthorizationCode().getValue();
+        double skippedWrites = userProfileWrites("skipped");
+        double partialWrites = userProfileWrites("partial");
+        double fullWrites = userProfileWrites("full");
+
+        given()
+                .auth().preemptive().oauth2(accessToken)
+                .when()
+                .get("/user")
+                .then()
+                .statusCode(HTTP_OK);
+
+        assertThat(userProfileWrites("skipped")).isGreaterThan(skippedWrites);
+        assertThat(userProfileWrites("partial")).isEqualTo(partialWrites);
+        assertThat(userProfileWrites("full")).isEqualTo(fullWrites);
+    }
+
+    @Test
+    public void thirdPartyCallsGoThroughPooledClient() {
+        double tokenExchanges = thirdPartyHttpRequests(THIRD_PARTY_LOGIN_IXORTALK.configValue(), "token_exchange");
+        double userInfoCalls = thirdPartyHttpRequests(THIRD_PARTY_LOGIN_IXORTALK.configValue(), "user_info");
+
+        getAccessTokenWithAuthorizationCode();
+
+        assertThat(thirdPartyHttpRequests(THIRD_PARTY_LOGIN_IXORTALK.configValue(), "token_exchange")).isEqualTo(tokenExchanges + 1);
+        assertThat(thirdPartyHttpRequests(THIRD_PARTY_LOGIN_IXORTALK.configValue(), "user_info")).isGreaterThan(userInfoCalls);
+        assertThat(defaultRegistry.getSampleValue("third_party_http_pool_connections", new String[]{"provider", "state"}, new String[]{THIRD_PARTY_LOGIN_IXORTALK.configValue(), "max"})).isEqualTo(50.0);
+        assertThat(defaultRegistry.getSampleValue("third_party_http_pool_connections", new String[]{"provider", "state"}, new String[]{THIRD_PARTY_LOGIN_IXORTALK.configValue(), "leased"})).isEqualTo(0.0);
+    }
+
+    private static double thirdPartyHttpRequests(String provider, String endpoint) {
+        return ofNullable(defaultRegistry.getSampleValue("third_party_http_request_duration_seconds_count", new String[]{"provider", "endpoint"}, new String[]{provider, endpoint})).orElse(0.0);
+    }
+
+    private static double userProfileWrites(String type) {
+        return ofNullable(defaultRegistry.getSampleValue("user_profile_writes_total", new String[]{"type"}, new String[]{type})).orElse(0.0);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyLoginProviders;
+import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.inject.Inject;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.ixortalk.authorization.server.domain.LoginProvider.IXORTALK;
+import static com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCircuitBreaker.State.OPEN;
+import static com.jayway.restassured.RestAssured.given;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@TestPropertySource(properties = {
+        "ixortalk.third-party-logins.third-party-ixortalk.circuit-breaker.failure-threshold=1",
+        "ixortalk.third-party-logins.third-party-ixortalk.circuit-breaker.open-duration-in-millis=600000"
+})
+public class ThirdPartyCircuitBreakerIntegrationTest extends AbstractSpringIntegrationTest {
+
+    @Inject
+    private ThirdPartyLoginProviders thirdPartyLoginProviders;
+
+    @Test
+    public void userInfoOutageOpensCircuitAndServesStoredProfile() {
+        String accessToken = getAccessTokenWithAuthorizationCode().getValue();
+        thirdPartyIxorTalkWireMockRule.stubFor(get(urlPathEqualTo("/user-info")).willReturn(aResponse().withStatus(HTTP_UNAVAILABLE)));
+        thirdPartyIxorTalkWireMockRule.resetRequests();
+
+        given()
+                .auth().preemptive().oauth2(accessToken)
+                .when()
+                .get("/user");
+
+        assertThat(thirdPartyLoginProviders.getLoginProvider(IXORTALK).getCircuitBreaker().getState()).isEqualTo(OPEN);
+
+        given()
+                .auth().preemptive().oauth2(accessToken)
+                .when()
+                .get("/user")
+                .then()
+                .statusCode(HTTP_OK)
+                .body("email", equalTo(PRINCIPAL_NAME_IXORTALK));
+
+        thirdPartyIxorTalkWireMockRule.verify(1, getRequestedFor(urlPathEqualTo("/user-info")));
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.signedtoken;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import com.jayway.restassured.path.json.JsonPath;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Map;
+
+import static com.ixortalk.authorization.server.TestConfigConstants.THIRD_PARTY_LOGIN_IXORTALK;
+import static com.jayway.restassured.RestAssured.given;
+import static java.util.Base64.getUrlDecoder;
+import static javax.servlet.http.HttpServletResponse.SC_NO_CONTENT;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+import static javax.servlet.http.HttpServletResponse.SC_UNAUTHORIZED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = "ixortalk.security.signed-tokens.enabled=true")
+public class SignedTokenIntegrationTest extends AbstractSpringIntegrationTest {
+
+    @Inject
+    private DataSource dataSource;
+
+    @Before
+    public void clearIssuedTokens() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("delete from oauth_access_token");
+        jdbcTemplate.update("delete from oauth_refresh_token");
+    }
+
+    @Test
+    public void tokenSignedWithPublishedKey() throws GeneralSecurityException, IOException {
+        OAuth2AccessToken accessToken = getAccessTokenWithAuthorizationCode();
+
+        Map<String, Object> claims = objectMapper.readValue(
+                JwtHelper.decodeAndVerify(accessToken.getValue(), new RsaVerifier(publishedPublicKey())).getClaims(),
+                new TypeReference<Map<String, Object>>() {});
+
+        assertThat(claims.get("user_name")).isEqualTo(PRINCIPAL_NAME_IXORTALK);
+        assertThat(claims.get("login_provider")).isEqualTo("IXORTALK");
+        assertThat((Iterable<?>) claims.get("authorities")).containsOnly(ROLE_IXORTALK_ROLE_1, ROLE_IXORTALK_ROLE_2);
+    }
+
+    @Test
+    public void validatedWithoutTokenTable() {
+        OAuth2AccessToken accessToken = getAccessTokenWithAuthorizationCode();
+
+        new JdbcTemplate(dataSource).update("delete from oauth_access_token");
+
+        assertUserStatus(accessToken, SC_OK);
+    }
+
+    @Test
+    public void refreshTwice() {
+        OAuth2AccessToken accessToken = getAccessTokenWithAuthorizationCode();
+
+        OAuth2AccessToken refreshed = getAccessTokenWithRefreshToken(accessToken.getRefreshToken());
+        OAuth2AccessToken refreshedAgain = getAccessTokenWithRefreshToken(refreshed.getRefreshToken());
+
+        assertThat(refreshed.getRefreshToken().getValue()).isEqualTo(accessToken.getRefreshToken().getValue());
+        assertThat(refreshedAgain.getRefreshToken().getValue()).isEqualTo(accessToken.getRefreshToken().getValue());
+        assertUserStatus(refreshedAgain, SC_OK);
+    }
+
+    @Test
+    public void logoutRevokesTokens() {
+        OAuth2AccessToken accessToken = getAccessTokenWithAuthorizationCode();
+        assertUserStatus(accessToken, SC_OK);
+
+        performOAuth2Login(THIRD_PARTY_LOGIN_IXORTALK);
+        given()
+                .filter(sessionFilter)
+        .when()
+                .get("/logout");
+
+        assertUserStatus(accessToken, SC_UNAUTHORIZED);
+        assertThat(new JdbcTemplate(dataSource).queryForList("select jti from revoked_access_token", String.class)).contains(accessToken.getAdditionalInformation().get("jti").toString());
+    }
+
+    @Test
+    public void profileDeleteRevokesTokens() {
+        OAuth2AccessToken accessToken = getAccessTokenWithAuthorizationCode();
+        assertUserStatus(accessToken, SC_OK);
+
+        String profileUrl =
+                given()
+                        .auth().preemptive().oauth2(adminToken().getValue())
+                .when()
+                        .get("/user-profiles")
+                .then()
+                        .statusCode(SC_OK)
+                        .extract().jsonPath().getString("_embedded.userProfiles[0]._links.self.href");
+
+        given()
+                .auth().preemptive().oauth2(adminToken().getValue())
+        .when()
+                .delete(profileUrl)
+        .then()
+                .statusCode(SC_NO_CONTENT);
+
+        assertUserStatus(accessToken, SC_UNAUTHORIZED);
+    }
+
+    private void assertUserStatus(OAuth2AccessToken accessToken, int status) {
+        given()
+                .auth().preemptive().oauth2(accessToken.getValue())
+        .when()
+                .get("/user")
+        .then()
+                .statusCode(status);
+    }
+
+    private RSAPublicKey publishedPublicKey() throws GeneralSecurityException {
+        JsonPath jwks = given().get("/oauth/jwks").then().statusCode(SC_OK).extract().jsonPath();
+        return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(
+                new RSAPublicKeySpec(
+                        new BigInteger(1, getUrlDecoder().decode(jwks.getString("keys[0].n"))),
+                        new BigInteger(1, getUrlDecoder().decode(jwks.getString("keys[0].e")))));
+    }
+}
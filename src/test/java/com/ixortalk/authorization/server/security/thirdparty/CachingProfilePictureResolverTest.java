@@ -0,0 +1,163 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2RestTemplate;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpMethod.GET;
+
+public class CachingProfilePictureResolverTest {
+
+    private RestTemplate restTemplate;
+    private ApplicationEventPublisher applicationEventPublisher;
+    private IxorTalkConfigProperties.ProfilePictureCache profilePictureCache;
+    private DefaultOAuth2AccessToken accessToken;
+    private OAuth2RestTemplate oAuth2RestTemplate;
+
+    private String principalName;
+    private String mediaUri;
+    private String url;
+    private String storedUrl;
+
+    @Before
+    public void before() {
+        restTemplate = mock(RestTemplate.class);
+        applicationEventPublisher = mock(ApplicationEventPublisher.class);
+        profilePictureCache = new IxorTalkConfigProperties.ProfilePictureCache();
+
+        accessToken = new DefaultOAuth2AccessToken(nextString("accessToken"));
+        OAuth2ClientContext oAuth2ClientContext = mock(OAuth2ClientContext.class);
+        when(oAuth2ClientContext.getAccessToken()).thenReturn(accessToken);
+        oAuth2RestTemplate = mock(OAuth2RestTemplate.class);
+        when(oAuth2RestTemplate.getOAuth2ClientContext()).thenReturn(oAuth2ClientContext);
+
+        principalName = nextString("principalName");
+        mediaUri = "https://media/" + nextString("imageId");
+        url = "https://pictures/" + nextString("picture");
+        storedUrl = null;
+    }
+
+    @Test
+    public void missResolvedInBackgroundAndCached() {
+        mediaResponds(url);
+        CachingProfilePictureResolver resolver = resolver();
+
+        assertThat(resolver.resolve(principalName, mediaUri)).isNull();
+        assertThat(resolver.resolve(principalName, mediaUri)).isEqualTo(url);
+
+        verify(restTemplate, times(1)).exchange(eq(mediaUri), eq(GET), any(HttpEntity.class), eq(JsonNode.class));
+        ArgumentCaptor<ProfilePictureResolvedEvent> event = ArgumentCaptor.forClass(ProfilePictureResolvedEvent.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getPrincipalName()).isEqualTo(principalName);
+        assertThat(event.getValue().getProfilePictureUrl()).isEqualTo(url);
+    }
+
+    @Test
+    public void missFallsBackToStoredPicture() {
+        storedUrl = "https://pictures/" + nextString("stored");
+        CachingProfilePictureResolver resolver =
+                new CachingProfilePictureResolver(nextString("provider"), oAuth2RestTemplate, restTemplate, task -> { }, applicationEventPublisher, principalName -> storedUrl, profilePictureCache);
+
+        assertThat(resolver.resolve(principalName, mediaUri)).isEqualTo(storedUrl);
+    }
+
+    @Test
+    public void callsMediaEndpointWithCurrentAccessToken() {
+        mediaResponds(url);
+
+        resolver().resolve(principalName, mediaUri);
+
+        ArgumentCaptor<HttpEntity> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).exchange(eq(mediaUri), eq(GET), request.capture(), eq(JsonNode.class));
+        assertThat(request.getValue().getHeaders().getFirst(AUTHORIZATION)).isEqualTo("Bearer " + accessToken.getValue());
+    }
+
+    @Test
+    public void expiredEntryServedWhileRefreshing() {
+        profilePictureCache.setTtlInSeconds(0);
+        mediaResponds(url);
+        CachingProfilePictureResolver resolver = resolver();
+
+        resolver.resolve(principalName, mediaUri);
+
+        assertThat(resolver.resolve(principalName, mediaUri)).isEqualTo(url);
+        verify(restTemplate, times(2)).exchange(eq(mediaUri), eq(GET), any(HttpEntity.class), eq(JsonNode.class));
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProfilePictureResolvedEvent.class));
+    }
+
+    @Test
+    public void failureNotCached() {
+        when(restTemplate.exchange(eq(mediaUri), eq(GET), any(HttpEntity.class), eq(JsonNode.class))).thenThrow(new ResourceAccessException("timeout"));
+        CachingProfilePictureResolver resolver = resolver();
+
+        assertThat(resolver.resolve(principalName, mediaUri)).isNull();
+        assertThat(resolver.resolve(principalName, mediaUri)).isNull();
+
+        verify(restTemplate, times(2)).exchange(eq(mediaUri), eq(GET), any(HttpEntity.class), eq(JsonNode.class));
+        verify(applicationEventPublisher, never()).publishEvent(any(ProfilePictureResolvedEvent.class));
+    }
+
+    @Test
+    public void noBlockingCallOnRequestThread() {
+        CachingProfilePictureResolver resolver =
+                new CachingProfilePictureResolver(nextString("provider"), oAuth2RestTemplate, restTemplate, task -> { }, applicationEventPublisher, principalName -> storedUrl, profilePictureCache);
+
+        assertThat(resolver.resolve(principalName, mediaUri)).isNull();
+
+        verify(restTemplate, never()).exchange(any(String.class), eq(GET), any(HttpEntity.class), eq(JsonNode.class));
+    }
+
+    private CachingProfilePictureResolver resolver() {
+        return new CachingProfilePictureResolver(nextString("provider"), oAuth2RestTemplate, restTemplate, Runnable::run, applicationEventPublisher, principalName -> storedUrl, profilePictureCache);
+    }
+
+    private void mediaResponds(String url) {
+        when(restTemplate.exchange(eq(mediaUri), eq(GET), any(HttpEntity.class), eq(JsonNode.class)))
+                .thenReturn(ResponseEntity.ok(new ObjectMapper().valueToTree(singletonMap("url", url))));
+    }
+}
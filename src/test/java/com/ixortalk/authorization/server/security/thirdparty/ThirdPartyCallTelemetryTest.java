@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeResourceDetails;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCallTelemetry.OTHER;
+import static com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCallTelemetry.REFRESH;
+import static com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCallTelemetry.TOKEN_EXCHANGE;
+import static com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCallTelemetry.USER_INFO;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static io.prometheus.client.CollectorRegistry.defaultRegistry;
+import static java.util.Optional.ofNullable;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ThirdPartyCallTelemetryTest {
+
+    private static final String TOKEN_RESPONSE = "{\"access_token\":\"accessToken\",\"token_type\":\"bearer\"}";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort());
+
+    private String provider;
+    private ThirdPartyClient client;
+
+    @Before
+    public void before() {
+        provider = nextString("provider");
+        IxorTalkConfigProperties.HttpClient httpClientProperties = new IxorTalkConfigProperties.HttpClient();
+        httpClientProperties.setReadTimeoutInMillis(500);
+        AuthorizationCodeResourceDetails resource = new AuthorizationCodeResourceDetails();
+        resource.setAccessTokenUri(wireMockRule.baseUrl() + "/oauth/token");
+        client = new ThirdPartyClient(provider, httpClientProperties, resource, wireMockRule.baseUrl() + "/user-info", new DefaultOAuth2ClientContext());
+
+        wireMockRule.stubFor(post(urlEqualTo("/oauth/token")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(TOKEN_RESPONSE)));
+    }
+
+    @After
+    public void after() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void tokenExchange() {
+        client.getRestTemplate().postForObject(wireMockRule.baseUrl() + "/oauth/token", grant("authorization_code"), String.class);
+
+        assertThat(sample("third_party_http_request_duration_seconds_count", TOKEN_EXCHANGE)).isEqualTo(1.0);
+        assertThat(requests(TOKEN_EXCHANGE, "200")).isEqualTo(1.0);
+        assertThat(sample("third_party_http_response_bytes_sum", TOKEN_EXCHANGE)).isEqualTo(TOKEN_RESPONSE.length());
+        assertThat(sample("third_party_http_request_duration_seconds_count", REFRESH)).isEqualTo(0.0);
+    }
+
+    @Test
+    public void refresh() {
+        client.getRestTemplate().postForObject(wireMockRule.baseUrl() + "/oauth/token", grant("refresh_token"), String.class);
+
+        assertThat(requests(REFRESH, "200")).isEqualTo(1.0);
+        assertThat(sample("third_party_http_request_duration_seconds_count", TOKEN_EXCHANGE)).isEqualTo(0.0);
+    }
+
+    @Test
+    public void userInfo_ErrorStatus() {
+        wireMockRule.stubFor(get(urlEqualTo("/user-info")).willReturn(aResponse().withStatus(503)));
+
+        assertThatThrownBy(() -> client.getRestTemplate().getForObject(wireMockRule.baseUrl() + "/user-info", String.class))
+                .isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(requests(USER_INFO, "503")).isEqualTo(1.0);
+        assertThat(sample("third_party_http_request_duration_seconds_count", USER_INFO)).isEqualTo(1.0);
+    }
+
+    @Test
+    public void otherEndpoint_Timeout() {
+        wireMockRule.stubFor(get(urlEqualTo("/picture")).willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+
+        assertThatThrownBy(() -> client.getRestTemplate().getForObject(wireMockRule.baseUrl() + "/picture", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+
+        assertThat(ofNullable(defaultRegistry.getSampleValue("third_party_http_errors_total", new String[]{"provider", "endpoint", "error"}, new String[]{provider, OTHER, "SocketTimeoutException"})).orElse(0.0)).isEqualTo(1.0);
+        assertThat(sample("third_party_http_request_duration_seconds_count", OTHER)).isEqualTo(1.0);
+    }
+
+    private static MultiValueMap<String, String> grant(String grantType) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", grantType);
+        form.add("code", "code");
+        return form;
+    }
+
+    private double requests(String endpoint, String status) {
+        return ofNullable(defaultRegistry.getSampleValue("third_party_http_requests_total", new String[]{"provider", "endpoint", "status"}, new String[]{provider, endpoint, status})).orElse(0.0);
+    }
+
+    private double sample(String name, String endpoint) {
+        return ofNullable(defaultRegistry.getSampleValue(name, new String[]{"provider", "endpoint"}, new String[]{provider, endpoint})).orElse(0.0);
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCircuitBreaker.CallNotPermittedException;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.client.resource.OAuth2AccessDeniedException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.time.Clock;
+import java.util.function.Supplier;
+
+import static com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCircuitBreaker.State.CLOSED;
+import static com.ixortalk.authorization.server.security.thirdparty.ThirdPartyCircuitBreaker.State.OPEN;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+
+public class ThirdPartyCircuitBreakerTest {
+
+    private Clock clock;
+    private ThirdPartyCircuitBreaker circuitBreaker;
+
+    private Supplier<String> call;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        IxorTalkConfigProperties.CircuitBreaker properties = new IxorTalkConfigProperties.CircuitBreaker();
+        properties.setFailureThreshold(2);
+        properties.setOpenDurationInMillis(1000);
+        properties.setMaxConcurrentCalls(1);
+
+        clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        circuitBreaker = new ThirdPartyCircuitBreaker(nextString("provider"), properties, clock);
+
+        call = mock(Supplier.class);
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        fail();
+        assertThat(circuitBreaker.getState()).isEqualTo(CLOSED);
+        fail();
+        assertThat(circuitBreaker.getState()).isEqualTo(OPEN);
+
+        assertThat(catchThrowable(() -> circuitBreaker.call(call))).isInstanceOf(CallNotPermittedException.class);
+        verify(call, never()).get();
+    }
+
+    @Test
+    public void successResetsFailureCount() {
+        fail();
+        circuitBreaker.call(() -> "ok");
+        fail();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void successfulTrialAfterOpenDurationCloses() {
+        fail();
+        fail();
+        when(clock.millis()).thenReturn(1000L);
+        when(call.get()).thenReturn("ok");
+
+        assertThat(circuitBreaker.call(call)).isEqualTo("ok");
+        assertThat(circuitBreaker.getState()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void failedTrialReopens() {
+        fail();
+        fail();
+        when(clock.millis()).thenReturn(1000L);
+
+        fail();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(OPEN);
+        assertThat(catchThrowable(() -> circuitBreaker.call(call))).isInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    public void serverErrorsAndTimeoutsCount() {
+        fail(new HttpServerErrorException(BAD_GATEWAY));
+        fail(new BadCredentialsException("Could not obtain access token", new OAuth2AccessDeniedException("Error requesting access token.", null, new ResourceAccessException("timeout", new SocketTimeoutException()))));
+
+        assertThat(circuitBreaker.getState()).isEqualTo(OPEN);
+    }
+
+    @Test
+    public void clientErrorsDoNotCount() {
+        fail(new BadCredentialsException("Could not obtain access token", new OAuth2AccessDeniedException("invalid_grant")));
+        fail(new BadCredentialsException("Could not obtain access token", new OAuth2AccessDeniedException("invalid_grant")));
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void errorDuringTrialAllowsNextTrial() {
+        fail();
+        fail();
+        when(clock.millis()).thenReturn(1000L);
+
+        catchThrowable(() -> circuitBreaker.call(() -> {
+            throw new AssertionError("trial aborted");
+        }));
+        when(call.get()).thenReturn("ok");
+
+        assertThat(circuitBreaker.getState()).isEqualTo(OPEN);
+        assertThat(circuitBreaker.call(call)).isEqualTo("ok");
+        assertThat(circuitBreaker.getState()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void bulkheadRejectsConcurrentCalls() {
+        Throwable nested = circuitBreaker.call(() -> catchThrowable(() -> circuitBreaker.call(call)));
+
+        assertThat(nested).isInstanceOf(CallNotPermittedException.class);
+        verify(call, never()).get();
+        assertThat(circuitBreaker.getState()).isEqualTo(CLOSED);
+    }
+
+    private void fail() {
+        fail(new ResourceAccessException("provider down"));
+    }
+
+    private void fail(RuntimeException failure) {
+        catchThrowable(() -> circuitBreaker.call(() -> {
+            throw failure;
+        }));
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.thirdparty;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.ixortalk.authorization.server.config.IxorTalkConfigProperties;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeResourceDetails;
+
+import java.io.IOException;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ThirdPartyClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort());
+
+    private ThirdPartyClient client;
+
+    @After
+    public void after() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void warmUpOpensPooledConnections() {
+        client = client(2);
+
+        client.warmUp();
+
+        assertThat(client.getHttpClient().getPoolStats().getAvailable()).isEqualTo(2);
+        assertThat(client.getHttpClient().getPoolStats().getLeased()).isEqualTo(0);
+    }
+
+    @Test
+    public void warmUpDisabledByDefault() {
+        client = client(0);
+
+        client.warmUp();
+
+        assertThat(client.getHttpClient().getPoolStats().getAvailable()).isEqualTo(0);
+    }
+
+    @Test
+    public void templatesShareTransportAndConverters() {
+        client = client(0);
+
+        assertThat(client.getRestTemplate().getRequestFactory()).isSameAs(client.getOAuth2RestTemplate().getRequestFactory());
+        assertThat(client.getRestTemplate().getMessageConverters()).isEqualTo(client.getOAuth2RestTemplate().getMessageConverters());
+    }
+
+    private ThirdPartyClient client(int warmUpConnections) {
+        IxorTalkConfigProperties.HttpClient httpClientProperties = new IxorTalkConfigProperties.HttpClient();
+        httpClientProperties.setWarmUpConnections(warmUpConnections);
+        AuthorizationCodeResourceDetails resource = new AuthorizationCodeResourceDetails();
+        resource.setAccessTokenUri(wireMockRule.baseUrl() + "/oauth/token");
+        return new ThirdPartyClient(nextString("provider"), httpClientProperties, resource, wireMockRule.baseUrl() + "/user-info", new DefaultOAuth2ClientContext());
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aClientCredentialsAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aRefreshedAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aThirdPartyAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.anAccessToken;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.assertSameAuthentication;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BinaryTokenCodecTest {
+
+    private BinaryTokenCodec binaryTokenCodec = new BinaryTokenCodec();
+    private JavaSerializationTokenCodec javaSerializationTokenCodec = new JavaSerializationTokenCodec();
+
+    @Test
+    public void accessToken() {
+        DefaultOAuth2AccessToken accessToken = anAccessToken();
+        accessToken.setAdditionalInformation(singletonMap("jti", nextString("jti")));
+
+        assertThat(binaryTokenCodec.decodeAccessToken(binaryTokenCodec.encodeAccessToken(accessToken))).isEqualToComparingFieldByFieldRecursively(accessToken);
+    }
+
+    @Test
+    public void accessTokenWithoutRefreshToken() {
+        DefaultOAuth2AccessToken accessToken = anAccessToken();
+        accessToken.setRefreshToken(null);
+
+        assertThat(binaryTokenCodec.decodeAccessToken(binaryTokenCodec.encodeAccessToken(accessToken))).isEqualToComparingFieldByFieldRecursively(accessToken);
+    }
+
+    @Test
+    public void refreshToken() {
+        DefaultOAuth2RefreshToken refreshToken = new DefaultOAuth2RefreshToken(nextString("refreshToken"));
+
+        assertThat(binaryTokenCodec.decodeRefreshToken(binaryTokenCodec.encodeRefreshToken(refreshToken))).isEqualTo(refreshToken);
+    }
+
+    @Test
+    public void thirdPartyAuthentication() {
+        assertRoundTrip(aThirdPartyAuthentication());
+    }
+
+    @Test
+    public void refreshedAuthentication() {
+        assertRoundTrip(aRefreshedAuthentication());
+    }
+
+    @Test
+    public void clientCredentialsAuthentication() {
+        assertRoundTrip(aClientCredentialsAuthentication());
+    }
+
+    @Test
+    public void smallerThanJavaSerialization() {
+        OAuth2Authentication authentication = aThirdPartyAuthentication();
+
+        assertThat(binaryTokenCodec.encodeAuthentication(authentication).length).isLessThan(javaSerializationTokenCodec.encodeAuthentication(authentication).length);
+    }
+
+    @Test
+    public void canDecode() {
+        DefaultOAuth2AccessToken accessToken = anAccessToken();
+
+        assertThat(binaryTokenCodec.canDecode(binaryTokenCodec.encodeAccessToken(accessToken))).isTrue();
+        assertThat(binaryTokenCodec.canDecode(javaSerializationTokenCodec.encodeAccessToken(accessToken))).isFalse();
+        assertThat(javaSerializationTokenCodec.canDecode(javaSerializationTokenCodec.encodeAccessToken(accessToken))).isTrue();
+        assertThat(javaSerializationTokenCodec.canDecode(binaryTokenCodec.encodeAccessToken(accessToken))).isFalse();
+    }
+
+    @Test
+    public void wrongType() {
+        byte[] encoded = binaryTokenCodec.encodeAccessToken(anAccessToken());
+
+        assertThatThrownBy(() -> binaryTokenCodec.decodeAuthentication(encoded)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertRoundTrip(OAuth2Authentication authentication) {
+        assertSameAuthentication(binaryTokenCodec.decodeAuthentication(binaryTokenCodec.encodeAuthentication(authentication)), authentication);
+    }
+}
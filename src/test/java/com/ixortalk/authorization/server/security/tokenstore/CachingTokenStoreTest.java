@@ -0,0 +1,153 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.Date;
+
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.lang.System.currentTimeMillis;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingTokenStoreTest {
+
+    private TokenStore delegate;
+    private CachingTokenStore cachingTokenStore;
+
+    private DefaultOAuth2AccessToken accessToken;
+    private OAuth2Authentication authentication;
+
+    @Before
+    public void before() {
+        delegate = mock(TokenStore.class);
+        cachingTokenStore = new CachingTokenStore(nextString("tokenStore"), delegate, 100, 60);
+
+        accessToken = new DefaultOAuth2AccessToken(nextString("accessToken"));
+        accessToken.setRefreshToken(new DefaultOAuth2RefreshToken(nextString("refreshToken")));
+        accessToken.setExpiration(new Date(currentTimeMillis() + 60000));
+        authentication = mock(OAuth2Authentication.class);
+
+        when(delegate.readAccessToken(accessToken.getValue())).thenReturn(accessToken);
+        when(delegate.readAuthentication(accessToken.getValue())).thenReturn(authentication);
+    }
+
+    @Test
+    public void readAccessToken_Cached() {
+        assertThat(cachingTokenStore.readAccessToken(accessToken.getValue())).isSameAs(accessToken);
+        assertThat(cachingTokenStore.readAccessToken(accessToken.getValue())).isSameAs(accessToken);
+
+        verify(delegate, times(1)).readAccessToken(accessToken.getValue());
+    }
+
+    @Test
+    public void readAuthentication_Cached() {
+        assertThat(cachingTokenStore.readAuthentication(accessToken)).isSameAs(authentication);
+        assertThat(cachingTokenStore.readAuthentication(accessToken.getValue())).isSameAs(authentication);
+
+        verify(delegate, times(1)).readAuthentication(accessToken.getValue());
+    }
+
+    @Test
+    public void storeAccessToken_WritesThrough() {
+        OAuth2Authentication updatedAuthentication = mock(OAuth2Authentication.class);
+
+        cachingTokenStore.storeAccessToken(accessToken, updatedAuthentication);
+
+        verify(delegate).storeAccessToken(accessToken, updatedAuthentication);
+        assertThat(cachingTokenStore.readAuthentication(accessToken)).isSameAs(updatedAuthentication);
+        assertThat(cachingTokenStore.readAccessToken(accessToken.getValue())).isSameAs(accessToken);
+        verify(delegate, times(0)).readAccessToken(accessToken.getValue());
+    }
+
+    @Test
+    public void removeAccessToken_Invalidates() {
+        cachingTokenStore.readAccessToken(accessToken.getValue());
+        cachingTokenStore.readAuthentication(accessToken);
+
+        cachingTokenStore.removeAccessToken(accessToken);
+        when(delegate.readAccessToken(accessToken.getValue())).thenReturn(null);
+        when(delegate.readAuthentication(accessToken.getValue())).thenReturn(null);
+
+        assertThat(cachingTokenStore.readAccessToken(accessToken.getValue())).isNull();
+        assertThat(cachingTokenStore.readAuthentication(accessToken.getValue())).isNull();
+        verify(delegate).removeAccessToken(accessToken);
+    }
+
+    @Test
+    public void removeAccessTokenUsingRefreshToken_Invalidates() {
+        cachingTokenStore.readAccessToken(accessToken.getValue());
+        cachingTokenStore.readAuthentication(accessToken);
+
+        cachingTokenStore.removeAccessTokenUsingRefreshToken(new DefaultOAuth2RefreshToken(accessToken.getRefreshToken().getValue()));
+        when(delegate.readAccessToken(accessToken.getValue())).thenReturn(null);
+        when(delegate.readAuthentication(accessToken.getValue())).thenReturn(null);
+
+        assertThat(cachingTokenStore.readAccessToken(accessToken.getValue())).isNull();
+        assertThat(cachingTokenStore.readAuthentication(accessToken.getValue())).isNull();
+    }
+
+    @Test
+    public void removeAccessTokenUsingRefreshToken_InvalidatesCachedAuthentication() {
+        cachingTokenStore.readAuthentication(accessToken);
+
+        cachingTokenStore.removeAccessTokenUsingRefreshToken(new DefaultOAuth2RefreshToken(accessToken.getRefreshToken().getValue()));
+        when(delegate.readAuthentication(accessToken.getValue())).thenReturn(null);
+
+        assertThat(cachingTokenStore.readAuthentication(accessToken.getValue())).isNull();
+    }
+
+    @Test
+    public void removeAccessTokenUsingRefreshToken_KeepsOtherTokens() {
+        cachingTokenStore.readAccessToken(accessToken.getValue());
+        cachingTokenStore.readAuthentication(accessToken);
+
+        cachingTokenStore.removeAccessTokenUsingRefreshToken(new DefaultOAuth2RefreshToken(nextString("otherRefreshToken")));
+
+        assertThat(cachingTokenStore.readAccessToken(accessToken.getValue())).isSameAs(accessToken);
+        assertThat(cachingTokenStore.readAuthentication(accessToken.getValue())).isSameAs(authentication);
+        verify(delegate, times(1)).readAccessToken(accessToken.getValue());
+        verify(delegate, times(1)).readAuthentication(accessToken.getValue());
+    }
+
+    @Test
+    public void expiredToken_NotServedFromCache() {
+        cachingTokenStore.readAccessToken(accessToken.getValue());
+
+        accessToken.setExpiration(new Date(currentTimeMillis() - 1));
+
+        assertThat(cachingTokenStore.readAccessToken(accessToken.getValue())).isSameAs(accessToken);
+        assertThat(cachingTokenStore.readAccessToken(accessToken.getValue())).isSameAs(accessToken);
+        verify(delegate, times(3)).readAccessToken(accessToken.getValue());
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JdbcTokenStore;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static com.ixortalk.authorization.server.security.tokenstore.CodecJdbcTokenStore.ACCESS_TOKEN;
+import static com.ixortalk.authorization.server.security.tokenstore.CodecJdbcTokenStore.AUTHENTICATION;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aThirdPartyAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.anAccessToken;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.assertSameAuthentication;
+import static io.prometheus.client.CollectorRegistry.defaultRegistry;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Optional.ofNullable;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CodecJdbcTokenStoreIntegrationTest extends AbstractSpringIntegrationTest {
+
+    @Inject
+    private DataSource dataSource;
+
+    private BinaryTokenCodec binaryTokenCodec = new BinaryTokenCodec();
+
+    private JdbcTokenStore legacyTokenStore;
+    private CodecJdbcTokenStore codecJdbcTokenStore;
+    private JdbcTemplate jdbcTemplate;
+
+    private DefaultOAuth2AccessToken accessToken;
+    private OAuth2Authentication authentication;
+
+    @Before
+    public void before() {
+        legacyTokenStore = new JdbcTokenStore(dataSource);
+        codecJdbcTokenStore = new CodecJdbcTokenStore(dataSource, binaryTokenCodec, new JavaSerializationTokenCodec());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        accessToken = anAccessToken();
+        authentication = aThirdPartyAuthentication();
+    }
+
+    @Test
+    public void storesBinary() {
+        codecJdbcTokenStore.storeAccessToken(accessToken, authentication);
+
+        assertThat(binaryTokenCodec.canDecode(storedColumn("oauth_access_token", "token", accessToken.getValue()))).isTrue();
+        assertThat(binaryTokenCodec.canDecode(storedColumn("oauth_access_token", "authentication", accessToken.getValue()))).isTrue();
+        assertThat(codecJdbcTokenStore.readAccessToken(accessToken.getValue())).isEqualToComparingFieldByFieldRecursively(accessToken);
+        assertSameAuthentication(codecJdbcTokenStore.readAuthentication(accessToken.getValue()), authentication);
+    }
+
+    @Test
+    public void legacyRowsReadAndRewritten() {
+        legacyTokenStore.storeAccessToken(accessToken, authentication);
+        legacyTokenStore.storeRefreshToken(accessToken.getRefreshToken(), authentication);
+
+        assertThat(codecJdbcTokenStore.readAccessToken(accessToken.getValue())).isEqualToComparingFieldByFieldRecursively(accessToken);
+        assertSameAuthentication(codecJdbcTokenStore.readAuthentication(accessToken.getValue()), authentication);
+        assertThat(codecJdbcTokenStore.readRefreshToken(accessToken.getRefreshToken().getValue())).isEqualToComparingFieldByFieldRecursively(accessToken.getRefreshToken());
+        assertSameAuthentication(codecJdbcTokenStore.readAuthenticationForRefreshToken(accessToken.getRefreshToken()), authentication);
+
+        assertThat(binaryTokenCodec.canDecode(storedColumn("oauth_access_token", "token", accessToken.getValue()))).isTrue();
+        assertThat(binaryTokenCodec.canDecode(storedColumn("oauth_access_token", "authentication", accessToken.getValue()))).isTrue();
+        assertThat(binaryTokenCodec.canDecode(storedColumn("oauth_refresh_token", "token", accessToken.getRefreshToken().getValue()))).isTrue();
+        assertThat(binaryTokenCodec.canDecode(storedColumn("oauth_refresh_token", "authentication", accessToken.getRefreshToken().getValue()))).isTrue();
+    }
+
+    @Test
+    public void payloadSizesRecorded() {
+        codecJdbcTokenStore.setName("payloadSizeTest");
+        double accessTokensWritten = payloadBytes(ACCESS_TOKEN, "write");
+        double authenticationsWritten = payloadBytes(AUTHENTICATION, "write");
+        double accessTokensRead = payloadBytes(ACCESS_TOKEN, "read");
+
+        codecJdbcTokenStore.storeAccessToken(accessToken, authentication);
+        codecJdbcTokenStore.readAccessToken(accessToken.getValue());
+
+        assertThat(payloadBytes(ACCESS_TOKEN, "write")).isEqualTo(accessTokensWritten + storedColumn("oauth_access_token", "token", accessToken.getValue()).length);
+        assertThat(payloadBytes(AUTHENTICATION, "write")).isEqualTo(authenticationsWritten + storedColumn("oauth_access_token", "authentication", accessToken.getValue()).length);
+        assertThat(payloadBytes(ACCESS_TOKEN, "read")).isEqualTo(accessTokensRead + storedColumn("oauth_access_token", "token", accessToken.getValue()).length);
+    }
+
+    private static double payloadBytes(String type, String direction) {
+        return ofNullable(defaultRegistry.getSampleValue("token_store_payload_bytes_sum", new String[]{"token_store", "type", "direction"}, new String[]{"payloadSizeTest", type, direction})).orElse(0.0);
+    }
+
+    private byte[] storedColumn(String table, String column, String tokenValue) {
+        return jdbcTemplate.queryForObject("select " + column + " from " + table + " where token_id = ?", byte[].class, tokenKey(tokenValue));
+    }
+
+    private static String tokenKey(String tokenValue) {
+        try {
+            return format("%032x", new BigInteger(1, MessageDigest.getInstance("MD5").digest(tokenValue.getBytes(UTF_8))));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aThirdPartyAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.anAccessToken;
+import static io.prometheus.client.CollectorRegistry.defaultRegistry;
+import static java.util.Arrays.asList;
+import static java.util.Optional.ofNullable;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InstrumentedTokenStoreTest {
+
+    private static final String TOKEN_STORE = "instrumentedTokenStoreTest";
+
+    private TokenStore delegate;
+    private InstrumentedTokenStore instrumentedTokenStore;
+
+    private DefaultOAuth2AccessToken accessToken;
+    private OAuth2Authentication authentication;
+
+    @Before
+    public void before() {
+        delegate = mock(TokenStore.class);
+        instrumentedTokenStore = new InstrumentedTokenStore(TOKEN_STORE, delegate, 0);
+        accessToken = anAccessToken();
+        authentication = aThirdPartyAuthentication();
+    }
+
+    @Test
+    public void storeAccessToken() {
+        double count = operations("storeAccessToken");
+
+        instrumentedTokenStore.storeAccessToken(accessToken, authentication);
+
+        verify(delegate).storeAccessToken(accessToken, authentication);
+        assertThat(operations("storeAccessToken")).isEqualTo(count + 1);
+        assertThat(rows("storeAccessToken")).isZero();
+    }
+
+    @Test
+    public void readAccessToken_Found() {
+        when(delegate.readAccessToken(accessToken.getValue())).thenReturn(accessToken);
+        double count = operations("readAccessToken");
+        double rows = rows("readAccessToken");
+
+        assertThat(instrumentedTokenStore.readAccessToken(accessToken.getValue())).isSameAs(accessToken);
+
+        assertThat(operations("readAccessToken")).isEqualTo(count + 1);
+        assertThat(rows("readAccessToken")).isEqualTo(rows + 1);
+    }
+
+    @Test
+    public void readAccessToken_NotFound() {
+        double count = operations("readAccessToken");
+        double rows = rows("readAccessToken");
+
+        assertThat(instrumentedTokenStore.readAccessToken(accessToken.getValue())).isNull();
+
+        assertThat(operations("readAccessToken")).isEqualTo(count + 1);
+        assertThat(rows("readAccessToken")).isEqualTo(rows);
+    }
+
+    @Test
+    public void findTokensByClientId() {
+        when(delegate.findTokensByClientId("client")).thenReturn(asList(accessToken, anAccessToken()));
+        double rows = rows("findTokensByClientId");
+
+        assertThat(instrumentedTokenStore.findTokensByClientId("client")).hasSize(2);
+
+        assertThat(rows("findTokensByClientId")).isEqualTo(rows + 2);
+    }
+
+    @Test
+    public void failedOperationStillTimed() {
+        doThrow(new IllegalStateException("boom")).when(delegate).removeAccessToken(accessToken);
+        double count = operations("removeAccessToken");
+        double rows = rows("removeAccessToken");
+
+        assertThatThrownBy(() -> instrumentedTokenStore.removeAccessToken(accessToken)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(operations("removeAccessToken")).isEqualTo(count + 1);
+        assertThat(rows("removeAccessToken")).isEqualTo(rows);
+    }
+
+    private static double operations(String operation) {
+        return sample("token_store_operation_duration_seconds_count", operation);
+    }
+
+    private static double rows(String operation) {
+        return sample("token_store_operation_rows_total", operation);
+    }
+
+    private static double sample(String name, String operation) {
+        return ofNullable(defaultRegistry.getSampleValue(name, new String[]{"token_store", "operation"}, new String[]{TOKEN_STORE, operation})).orElse(0.0);
+    }
+}
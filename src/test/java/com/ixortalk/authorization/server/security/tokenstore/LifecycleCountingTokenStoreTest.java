@@ -0,0 +1,113 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.Date;
+
+import static com.ixortalk.authorization.server.security.tokenstore.LifecycleCountingTokenStore.EXPIRED;
+import static com.ixortalk.authorization.server.security.tokenstore.LifecycleCountingTokenStore.ISSUED;
+import static com.ixortalk.authorization.server.security.tokenstore.LifecycleCountingTokenStore.REFRESHED;
+import static com.ixortalk.authorization.server.security.tokenstore.LifecycleCountingTokenStore.REVOKED;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aRefreshedAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aThirdPartyAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.anAccessToken;
+import static io.prometheus.client.CollectorRegistry.defaultRegistry;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Optional.ofNullable;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class LifecycleCountingTokenStoreTest {
+
+    private TokenStore delegate;
+    private LifecycleCountingTokenStore lifecycleCountingTokenStore;
+
+    private DefaultOAuth2AccessToken accessToken;
+
+    @Before
+    public void before() {
+        delegate = mock(TokenStore.class);
+        lifecycleCountingTokenStore = new LifecycleCountingTokenStore(delegate);
+        accessToken = anAccessToken();
+    }
+
+    @Test
+    public void storeAccessToken_Issued() {
+        OAuth2Authentication authentication = aThirdPartyAuthentication();
+        double issued = tokens(ISSUED);
+        double refreshed = tokens(REFRESHED);
+
+        lifecycleCountingTokenStore.storeAccessToken(accessToken, authentication);
+
+        verify(delegate).storeAccessToken(accessToken, authentication);
+        assertThat(tokens(ISSUED)).isEqualTo(issued + 1);
+        assertThat(tokens(REFRESHED)).isEqualTo(refreshed);
+    }
+
+    @Test
+    public void storeAccessToken_Refreshed() {
+        double issued = tokens(ISSUED);
+        double refreshed = tokens(REFRESHED);
+
+        lifecycleCountingTokenStore.storeAccessToken(accessToken, aRefreshedAuthentication());
+
+        assertThat(tokens(ISSUED)).isEqualTo(issued);
+        assertThat(tokens(REFRESHED)).isEqualTo(refreshed + 1);
+    }
+
+    @Test
+    public void removeAccessToken_Revoked() {
+        double revoked = tokens(REVOKED);
+        double expired = tokens(EXPIRED);
+
+        lifecycleCountingTokenStore.removeAccessToken(accessToken);
+
+        verify(delegate).removeAccessToken(accessToken);
+        assertThat(tokens(REVOKED)).isEqualTo(revoked + 1);
+        assertThat(tokens(EXPIRED)).isEqualTo(expired);
+    }
+
+    @Test
+    public void removeAccessToken_Expired() {
+        accessToken.setExpiration(new Date(currentTimeMillis() - 1000));
+        double revoked = tokens(REVOKED);
+        double expired = tokens(EXPIRED);
+
+        lifecycleCountingTokenStore.removeAccessToken(accessToken);
+
+        assertThat(tokens(REVOKED)).isEqualTo(revoked);
+        assertThat(tokens(EXPIRED)).isEqualTo(expired + 1);
+    }
+
+    private static double tokens(String event) {
+        return ofNullable(defaultRegistry.getSampleValue("oauth2_access_tokens_total", new String[]{"event"}, new String[]{event})).orElse(0.0);
+    }
+}
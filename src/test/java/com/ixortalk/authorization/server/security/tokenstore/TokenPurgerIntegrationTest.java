@@ -0,0 +1,150 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JdbcTokenStore;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.util.Date;
+
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.aThirdPartyAuthentication;
+import static com.ixortalk.authorization.server.security.tokenstore.TokenStoreTestFixtures.anAccessToken;
+import static java.lang.System.currentTimeMillis;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenPurgerIntegrationTest extends AbstractSpringIntegrationTest {
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    private CodecJdbcTokenStore codecJdbcTokenStore;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void before() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("delete from oauth_access_token");
+        jdbcTemplate.update("delete from oauth_refresh_token");
+
+        codecJdbcTokenStore = new CodecJdbcTokenStore(dataSource, new BinaryTokenCodec(), new JavaSerializationTokenCodec());
+    }
+
+    @Test
+    public void expiredTokensPurged() {
+        DefaultOAuth2AccessToken validAccessToken = anAccessToken();
+        DefaultOAuth2AccessToken expiredAccessToken = expired(anAccessToken());
+        store(codecJdbcTokenStore, validAccessToken);
+        store(codecJdbcTokenStore, expiredAccessToken);
+
+        tokenPurger(500, 20).run();
+
+        assertThat(codecJdbcTokenStore.readAccessToken(validAccessToken.getValue())).isNotNull();
+        assertThat(codecJdbcTokenStore.readRefreshToken(validAccessToken.getRefreshToken().getValue())).isNotNull();
+        assertThat(codecJdbcTokenStore.readAccessToken(expiredAccessToken.getValue())).isNull();
+        assertThat(codecJdbcTokenStore.readRefreshToken(expiredAccessToken.getRefreshToken().getValue())).isNull();
+    }
+
+    @Test
+    public void expirationWrittenOnInsert() {
+        store(codecJdbcTokenStore, anAccessToken());
+
+        assertThat(rowsWithoutExpiration("oauth_access_token")).isZero();
+        assertThat(rowsWithoutExpiration("oauth_refresh_token")).isZero();
+    }
+
+    @Test
+    public void legacyRowsWithoutExpirationBackfilled() {
+        JdbcTokenStore legacyTokenStore = new JdbcTokenStore(dataSource);
+        DefaultOAuth2AccessToken validAccessToken = anAccessToken();
+        DefaultOAuth2AccessToken expiredAccessToken = expired(anAccessToken());
+        store(legacyTokenStore, validAccessToken);
+        store(legacyTokenStore, expiredAccessToken);
+
+        tokenPurger(500, 20).run();
+
+        assertThat(rowsWithoutExpiration("oauth_access_token")).isZero();
+        assertThat(rowsWithoutExpiration("oauth_refresh_token")).isZero();
+        assertThat(codecJdbcTokenStore.readAccessToken(validAccessToken.getValue())).isNotNull();
+        assertThat(codecJdbcTokenStore.readAccessToken(expiredAccessToken.getValue())).isNull();
+        assertThat(codecJdbcTokenStore.readRefreshToken(expiredAccessToken.getRefreshToken().getValue())).isNull();
+    }
+
+    @Test
+    public void refreshableTokensRetained() {
+        codecJdbcTokenStore.setRefreshableRetentionInSeconds(3600);
+        DefaultOAuth2AccessToken refreshableAccessToken = expired(anAccessToken());
+        refreshableAccessToken.setRefreshToken(new DefaultOAuth2RefreshToken(refreshableAccessToken.getRefreshToken().getValue()));
+        store(codecJdbcTokenStore, refreshableAccessToken);
+
+        tokenPurger(500, 20).run();
+
+        assertThat(codecJdbcTokenStore.readAccessToken(refreshableAccessToken.getValue())).isNotNull();
+        assertThat(codecJdbcTokenStore.readRefreshToken(refreshableAccessToken.getRefreshToken().getValue())).isNotNull();
+    }
+
+    @Test
+    public void purgeBoundedPerRun() {
+        for (int i = 0; i < 5; i++) {
+            store(codecJdbcTokenStore, expired(anAccessToken()));
+        }
+
+        tokenPurger(2, 2).run();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from oauth_access_token", Integer.class)).isEqualTo(1);
+    }
+
+    private TokenPurger tokenPurger(int batchSize, int maxBatchesPerRun) {
+        return new TokenPurger(dataSource, transactionManager, batchSize, maxBatchesPerRun, 0, "for update")
+                .purge("oauth_access_token", "oauth_refresh_token", codecJdbcTokenStore);
+    }
+
+    private void store(JdbcTokenStore tokenStore, DefaultOAuth2AccessToken accessToken) {
+        OAuth2Authentication authentication = aThirdPartyAuthentication();
+        tokenStore.storeAccessToken(accessToken, authentication);
+        tokenStore.storeRefreshToken(accessToken.getRefreshToken(), authentication);
+    }
+
+    private int rowsWithoutExpiration(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where expiration is null", Integer.class);
+    }
+
+    private static DefaultOAuth2AccessToken expired(DefaultOAuth2AccessToken accessToken) {
+        accessToken.setExpiration(new Date(currentTimeMillis() - 60000));
+        accessToken.setRefreshToken(new DefaultExpiringOAuth2RefreshToken(accessToken.getRefreshToken().getValue(), new Date(currentTimeMillis() - 1000)));
+        return accessToken;
+    }
+}
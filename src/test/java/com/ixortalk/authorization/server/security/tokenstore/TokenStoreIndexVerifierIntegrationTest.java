@@ -0,0 +1,58 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import com.ixortalk.authorization.server.AbstractSpringIntegrationTest;
+import org.junit.Test;
+import org.springframework.security.oauth2.provider.token.store.JdbcTokenStore;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenStoreIndexVerifierIntegrationTest extends AbstractSpringIntegrationTest {
+
+    private static final String UNINDEXED_LOOKUP_SQL = "select code, authentication from oauth_code where code = ?";
+
+    @Inject
+    private TokenStoreIndexVerifier tokenStoreIndexVerifier;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Test
+    public void allConfiguredLookupsIndexed() throws SQLException {
+        assertThat(tokenStoreIndexVerifier.findUnindexedLookups()).isEmpty();
+    }
+
+    @Test
+    public void unindexedLookupReported() throws SQLException {
+        JdbcTokenStore jdbcTokenStore = new JdbcTokenStore(dataSource);
+        jdbcTokenStore.setSelectAccessTokenSql(UNINDEXED_LOOKUP_SQL);
+
+        assertThat(new TokenStoreIndexVerifier(dataSource, jdbcTokenStore).findUnindexedLookups()).containsExactly(UNINDEXED_LOOKUP_SQL);
+    }
+}
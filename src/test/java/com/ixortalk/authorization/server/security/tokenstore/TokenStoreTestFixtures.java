@@ -0,0 +1,144 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016-present IxorTalk CVBA
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ixortalk.authorization.server.security.tokenstore;
+
+import com.ixortalk.authorization.server.security.IxorTalkPrincipal;
+import com.ixortalk.authorization.server.security.UserDetails;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.ixortalk.authorization.server.domain.AuthorityTestBuilder.anAuthority;
+import static com.ixortalk.authorization.server.domain.LoginProvider.IXORTALK;
+import static com.ixortalk.authorization.server.domain.UserProfileTestBuilder.aUserProfile;
+import static com.ixortalk.test.util.Randomizer.nextString;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenStoreTestFixtures {
+
+    private TokenStoreTestFixtures() {}
+
+    public static DefaultOAuth2AccessToken anAccessToken() {
+        DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken(nextString("accessToken"));
+        accessToken.setExpiration(new Date(currentTimeMillis() + 1800000));
+        accessToken.setRefreshToken(new DefaultExpiringOAuth2RefreshToken(nextString("refreshToken"), new Date(currentTimeMillis() + 3600000)));
+        accessToken.setScope(newHashSet("openid", "read", "write"));
+        return accessToken;
+    }
+
+    public static OAuth2Authentication aThirdPartyAuthentication() {
+        Map<String, Object> userInfo = new LinkedHashMap<>();
+        userInfo.put("name", nextString("name"));
+        userInfo.put("email", nextString("email"));
+        userInfo.put("authorities", singletonList(singletonMap("authority", "ROLE_USER")));
+        userInfo.put("active", true);
+        IxorTalkPrincipal principal = new IxorTalkPrincipal(IXORTALK, nextString("name"), nextString("email"), nextString("firstName"), nextString("lastName"), nextString("profilePictureUrl"), userInfo);
+
+        UsernamePasswordAuthenticationToken userAuthentication = new UsernamePasswordAuthenticationToken(principal, "N/A", AuthorityUtils.createAuthorityList("ROLE_USER"));
+        userAuthentication.setDetails(userInfo);
+
+        OAuth2Authentication thirdPartyAuthentication = new OAuth2Authentication(anOAuth2Request("thirdPartyClient", "authorization_code"), userAuthentication);
+        return new OAuth2Authentication(anOAuth2Request("user-client", "authorization_code"), thirdPartyAuthentication);
+    }
+
+    public static OAuth2Authentication aRefreshedAuthentication() {
+        UserDetails userDetails = new UserDetails(
+                aUserProfile()
+                        .withName(nextString("name"))
+                        .withEmail(nextString("email"))
+                        .withFirstName(nextString("firstName"))
+                        .withLastName(nextString("lastName"))
+                        .withAuthorities(anAuthority().withAuthority("ROLE_USER").build())
+                        .withLoginProvider(IXORTALK)
+                        .build());
+        PreAuthenticatedAuthenticationToken userAuthentication = new PreAuthenticatedAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+        userAuthentication.setDetails(aThirdPartyAuthentication());
+
+        OAuth2Request refreshRequest = anOAuth2Request("user-client", "authorization_code")
+                .refresh(new TokenRequest(singletonMap("grant_type", "refresh_token"), "user-client", newHashSet("openid"), "refresh_token"));
+        return new OAuth2Authentication(refreshRequest, userAuthentication);
+    }
+
+    public static OAuth2Authentication aClientCredentialsAuthentication() {
+        return new OAuth2Authentication(anOAuth2Request("admin-client", "client_credentials"), null);
+    }
+
+    public static void assertSameAuthentication(OAuth2Authentication actual, OAuth2Authentication expected) {
+        assertThat(actual.getOAuth2Request()).isEqualTo(expected.getOAuth2Request());
+        assertThat(actual.getAuthorities()).isEqualTo(expected.getAuthorities());
+        assertSameUserAuthentication(actual.getUserAuthentication(), expected.getUserAuthentication());
+    }
+
+    private static void assertSameUserAuthentication(Authentication actual, Authentication expected) {
+        if (expected == null) {
+            assertThat(actual).isNull();
+            return;
+        }
+        assertThat(actual).isExactlyInstanceOf(expected.getClass());
+        if (expected instanceof OAuth2Authentication) {
+            assertSameAuthentication((OAuth2Authentication) actual, (OAuth2Authentication) expected);
+            return;
+        }
+        assertThat(actual.getPrincipal()).isEqualToComparingFieldByFieldRecursively(expected.getPrincipal());
+        assertThat(actual.getCredentials()).isEqualTo(expected.getCredentials());
+        assertThat(actual.getAuthorities()).isEqualTo(expected.getAuthorities());
+        assertThat(actual.isAuthenticated()).isEqualTo(expected.isAuthenticated());
+        if (expected.getDetails() instanceof OAuth2Authentication) {
+            assertSameAuthentication((OAuth2Authentication) actual.getDetails(), (OAuth2Authentication) expected.getDetails());
+        } else {
+            assertThat(actual.getDetails()).isEqualTo(expected.getDetails());
+        }
+    }
+
+    private static OAuth2Request anOAuth2Request(String clientId, String grantType) {
+        Map<String, String> requestParameters = newHashMap();
+        requestParameters.put("grant_type", grantType);
+        requestParameters.put("client_id", clientId);
+        return new OAuth2Request(
+                requestParameters,
+                clientId,
+                AuthorityUtils.createAuthorityList("ROLE_CLIENT"),
+                true,
+                newHashSet("openid", "read", "write"),
+                newHashSet(),
+                "http://localhost/" + nextString("redirect"),
+                newHashSet("code"),
+                newHashMap());
+    }
+}